@@ -0,0 +1,80 @@
+package com.cache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// 경합 상황의 get/set. 스레드 수는 -PjmhThreads=1..64 로 바꿔 가며 잰다
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class CacheStoreBenchmark {
+    private static final int KEYS = 100_000;
+
+    @Param({"1", "16"})
+    int shards;
+
+    @Param({"LRU", "CLOCK", "TINYLFU"})
+    EvictionPolicyType policy;
+
+    CacheStore<String, String> store;
+    String[] keys;
+
+    @Setup
+    public void setUp() {
+        store = new CacheStore<>(CacheConfig.builder()
+                .capacity(KEYS * 2)
+                .shards(shards)
+                .evictionPolicy(policy)
+                .build());
+        keys = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = "key:" + i;
+            store.set(keys[i], "value-" + i);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        final SplittableRandom random = new SplittableRandom();
+
+        int next() {
+            return random.nextInt(KEYS);
+        }
+    }
+
+    @Benchmark
+    public String get(ThreadState thread) {
+        return store.get(keys[thread.next()]);
+    }
+
+    @Benchmark
+    public void set(ThreadState thread) {
+        store.set(keys[thread.next()], "value");
+    }
+
+    // GET 90% / SET 10%
+    @Benchmark
+    public String mixed(ThreadState thread) {
+        String key = keys[thread.next()];
+        if (thread.random.nextInt(10) == 0) {
+            store.set(key, "value");
+            return null;
+        }
+        return store.get(key);
+    }
+}
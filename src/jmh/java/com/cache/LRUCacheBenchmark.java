@@ -0,0 +1,64 @@
+package com.cache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// segment lock 안에서 한 스레드가 부르는 경로라 단일 스레드로 잰다
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class LRUCacheBenchmark {
+    @Param({"10000", "1000000"})
+    int capacity;
+
+    LRUCache<String> lru;
+    String[] keys;
+    final SplittableRandom random = new SplittableRandom(42);
+    long nextKey;
+
+    @Setup
+    public void setUp() {
+        lru = new LRUCache<>(capacity);
+        keys = new String[capacity];
+        for (int i = 0; i < capacity; i++) {
+            keys[i] = "key:" + i;
+            lru.recordAccess(keys[i]);
+        }
+        nextKey = capacity;
+    }
+
+    // 이미 있는 키를 맨 뒤로 옮긴다
+    @Benchmark
+    public void recordAccess() {
+        lru.recordAccess(keys[random.nextInt(capacity)]);
+    }
+
+    @Benchmark
+    public void recordHit() {
+        lru.recordHit(keys[random.nextInt(capacity)]);
+    }
+
+    // 가득 찬 상태에서 새 키를 넣고 가장 오래된 키를 내보낸다 (CacheSegment 의 eviction 순서와 같다)
+    @Benchmark
+    public String insertAndEvict() {
+        lru.recordAccess("key:" + nextKey++);
+        String victim = lru.findEvictionTarget();
+        lru.remove(victim);
+        return victim;
+    }
+}
@@ -0,0 +1,80 @@
+package com.cache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// 키 백만 개 단위의 snapshot 저장/복원 시간. 한 번이 수백 ms 라 SingleShotTime 으로 잰다.
+// 같은 파일에 쓰므로 -PjmhThreads 와 함께 돌리지 않는다
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Threads(1)
+@State(Scope.Benchmark)
+public class SnapshotManagerBenchmark {
+    @Param({"1000000"})
+    int keys;
+
+    @Param({"1", "4"})
+    int loadThreads;
+
+    Path directory;
+    Path file;
+    CacheStore<String, String> source;
+    CacheStore<String, String> target;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("snapshot-bench");
+        file = directory.resolve("snapshot.dat");
+        source = newStore();
+        for (int i = 0; i < keys; i++) {
+            source.set("key:" + i, "value-" + i);
+        }
+        new SnapshotManager<>(source, file.toString()).saveSnapshot();
+    }
+
+    @Setup(Level.Invocation)
+    public void newTarget() {
+        target = newStore();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public boolean save() {
+        return new SnapshotManager<>(source, file.toString(), loadThreads).saveSnapshot();
+    }
+
+    @Benchmark
+    public int load() {
+        new SnapshotManager<>(target, file.toString(), loadThreads).loadSnapshot();
+        return target.size();
+    }
+
+    private CacheStore<String, String> newStore() {
+        return new CacheStore<>(CacheConfig.builder().capacity(keys * 2).shards(16).build());
+    }
+}
@@ -0,0 +1,81 @@
+package com.cache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// 만료 cycle 한 번의 비용을 전체 키 수에 따라 잰다.
+// idleCycle 은 만료할 키가 없을 때, expireCycle 은 매번 EXPIRING 개가 만료됐을 때다
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class TTLManagerBenchmark {
+    private static final int EXPIRING = 1_000;
+    private static final long TTL_MILLIS = 1_000;
+
+    @Param({"10000", "100000", "1000000"})
+    int keys;
+
+    // ManualClock 은 test 소스셋에 있으므로 시계를 직접 둔다. TTLManager 스레드도 읽으므로 volatile
+    volatile long nowMillis;
+    CacheStore<String, String> store;
+    TTLManager manager;
+    long round;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        nowMillis = 1_000_000;
+        store = new CacheStore<>(CacheConfig.builder()
+                .capacity((keys + EXPIRING) * 2)
+                .clock(() -> nowMillis)
+                .build());
+        // 만료되지 않는 키들. cycle 이 이들을 훑는지(키 수에 비례하는지)를 본다
+        for (int i = 0; i < keys; i++) {
+            store.set("key:" + i, "value", TimeUnit.DAYS.toMillis(365));
+        }
+        // budget 으로 잘리지 않게 충분히 준다
+        manager = new TTLManager(store, 100, TimeUnit.SECONDS.toMicros(1));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        manager.stop();
+    }
+
+    @State(Scope.Thread)
+    public static class Expiring {
+        @Setup(Level.Invocation)
+        public void addExpiring(TTLManagerBenchmark benchmark) {
+            long round = benchmark.round++;
+            for (int i = 0; i < EXPIRING; i++) {
+                benchmark.store.set("expiring:" + round + ":" + i, "value", TTL_MILLIS);
+            }
+            benchmark.nowMillis += TTL_MILLIS * 2;
+        }
+    }
+
+    @Benchmark
+    public long idleCycle() {
+        return manager.runCycle().expired();
+    }
+
+    @Benchmark
+    public long expireCycle(Expiring expiring) {
+        return manager.runCycle().expired();
+    }
+}
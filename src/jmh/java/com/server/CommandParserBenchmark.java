@@ -0,0 +1,58 @@
+package com.server;
+
+import com.cache.CacheConfig;
+import com.cache.CacheStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// 명령 종류별 파싱 + 실행 비용. 응답 인코딩과 네트워크는 제외된다
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class CommandParserBenchmark {
+    private static final int KEYS = 10_000;
+
+    @Param({
+            "PING",
+            "GET key:42",
+            "GET missing",
+            "SET key:42 value",
+            "SET key:42 value EX 60",
+            "MGET key:1 key:2 key:3 key:4 key:5 key:6 key:7 key:8",
+            "MSET key:1 a key:2 b key:3 c key:4 d",
+            "DEL missing",
+            "EXISTS key:42",
+            "TTL key:42"
+    })
+    String command;
+
+    CommandParser parser;
+
+    @Setup
+    public void setUp() {
+        CacheStore<String, String> store = new CacheStore<>(CacheConfig.builder().capacity(KEYS * 2).build());
+        for (int i = 0; i < KEYS; i++) {
+            store.set("key:" + i, "value-" + i);
+        }
+        parser = new CommandParser(store);
+    }
+
+    @Benchmark
+    public CommandResult handle() {
+        return parser.handle(command);
+    }
+}
@@ -1,8 +1,19 @@
 package com;
 
+import com.cache.EvictionPolicyType;
+import com.cache.FsyncPolicy;
+import com.cache.SaveRule;
+import com.cache.StorageType;
+import com.common.Log;
+import com.server.ExecutorMode;
+import com.server.IoMode;
 import com.server.RedisServer;
 import com.server.ServerConfig;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
 public class Main {
     public static void main(String[] args) {
         // Example:
@@ -24,6 +35,56 @@ public class Main {
                 builder.backlog(parsePositiveInt(arg.substring(10), "backlog"));
             } else if (arg.startsWith("--workers=")) {
                 builder.workerThreads(parsePositiveInt(arg.substring(10), "workers"));
+            } else if (arg.startsWith("--capacity=")) {
+                builder.cacheCapacity(parsePositiveInt(arg.substring(11), "capacity"));
+            } else if (arg.startsWith("--shards=")) {
+                builder.cacheShards(parsePositiveInt(arg.substring(9), "shards"));
+            } else if (arg.startsWith("--eviction=")) {
+                builder.evictionPolicy(parseEnum(EvictionPolicyType.class, arg.substring(11), "eviction"));
+            } else if (arg.startsWith("--io=")) {
+                builder.ioMode(parseEnum(IoMode.class, arg.substring(5), "io"));
+            } else if (arg.startsWith("--event-loops=")) {
+                builder.eventLoopThreads(parsePositiveInt(arg.substring(14), "event-loops"));
+            } else if (arg.startsWith("--executor=")) {
+                builder.executorMode(parseEnum(ExecutorMode.class, arg.substring(11), "executor"));
+            } else if (arg.equals("--greeting")) {
+                builder.greeting(true);
+            } else if (arg.equals("--no-greeting")) {
+                builder.greeting(false);
+            } else if (arg.startsWith("--expire-period=")) {
+                builder.expirePeriodMillis(parsePositiveInt(arg.substring(16), "expire-period"));
+            } else if (arg.startsWith("--expire-budget-us=")) {
+                builder.expireBudgetMicros(parsePositiveInt(arg.substring(19), "expire-budget-us"));
+            } else if (arg.startsWith("--maxmemory=")) {
+                builder.maxMemoryBytes(parseMemorySize(arg.substring(12), "maxmemory"));
+            } else if (arg.startsWith("--storage=")) {
+                builder.storage(parseEnum(StorageType.class, arg.substring(10), "storage"));
+            } else if (arg.startsWith("--snapshot-file=")) {
+                builder.snapshotPath(arg.substring(16));
+            } else if (arg.startsWith("--save=")) {
+                builder.saveRules(parseSaveRules(arg.substring(7)));
+            } else if (arg.equals("--warm-start")) {
+                builder.warmStart(true);
+            } else if (arg.startsWith("--warm-start-wait-ms=")) {
+                builder.warmStartWaitMillis(parseNonNegativeInt(arg.substring(21), "warm-start-wait-ms"));
+            } else if (arg.startsWith("--snapshot-load-threads=")) {
+                builder.snapshotLoadThreads(parsePositiveInt(arg.substring(24), "snapshot-load-threads"));
+            } else if (arg.equals("--aof")) {
+                builder.appendOnly(true);
+            } else if (arg.startsWith("--aof-file=")) {
+                builder.appendOnlyPath(arg.substring(11));
+            } else if (arg.startsWith("--aof-fsync=")) {
+                builder.appendFsync(parseEnum(FsyncPolicy.class, arg.substring(12), "aof-fsync"));
+            } else if (arg.startsWith("--aof-rewrite-percentage=")) {
+                builder.aofRewritePercentage(parseNonNegativeInt(arg.substring(25), "aof-rewrite-percentage"));
+            } else if (arg.startsWith("--aof-rewrite-min-size=")) {
+                builder.aofRewriteMinSize(parseMemorySize(arg.substring(23), "aof-rewrite-min-size"));
+            } else if (arg.startsWith("--slowlog-log-slower-than=")) {
+                builder.slowlogLogSlowerThanMicros(parseLong(arg.substring(26), "slowlog-log-slower-than"));
+            } else if (arg.startsWith("--slowlog-max-len=")) {
+                builder.slowlogMaxLen(parsePositiveInt(arg.substring(18), "slowlog-max-len"));
+            } else if (arg.startsWith("--log-level=")) {
+                builder.logLevel(parseEnum(Log.Level.class, arg.substring(12), "log-level"));
             }
         }
 
@@ -41,4 +102,75 @@ public class Main {
             throw new IllegalArgumentException("Invalid " + name + " value: " + value, e);
         }
     }
+
+    private static int parseNonNegativeInt(String value, String name) {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed < 0) {
+                throw new IllegalArgumentException(name + " must not be negative.");
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + " value: " + value, e);
+        }
+    }
+
+    private static long parseLong(String value, String name) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + " value: " + value, e);
+        }
+    }
+
+    // "3600:1,300:100" 처럼 seconds:changes 를 쉼표로 나열한다. 빈 값이면 자동 저장을 끈다
+    private static List<SaveRule> parseSaveRules(String value) {
+        List<SaveRule> rules = new ArrayList<>();
+        for (String rule : value.split(",")) {
+            if (rule.isBlank()) {
+                continue;
+            }
+            String[] parts = rule.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid save rule: " + rule);
+            }
+            try {
+                rules.add(new SaveRule(Long.parseLong(parts[0]), Long.parseLong(parts[1])));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid save rule: " + rule, e);
+            }
+        }
+        return rules;
+    }
+
+    // 100, 64kb, 256mb, 2gb 형식 (0 = 제한 없음)
+    private static long parseMemorySize(String value, String name) {
+        String lower = value.trim().toLowerCase(Locale.ROOT);
+        long unit = 1;
+        if (lower.endsWith("gb")) {
+            unit = 1L << 30;
+        } else if (lower.endsWith("mb")) {
+            unit = 1L << 20;
+        } else if (lower.endsWith("kb")) {
+            unit = 1L << 10;
+        }
+        String digits = unit == 1 ? lower : lower.substring(0, lower.length() - 2);
+        try {
+            long parsed = Long.parseLong(digits);
+            if (parsed < 0) {
+                throw new IllegalArgumentException(name + " must not be negative.");
+            }
+            return Math.multiplyExact(parsed, unit);
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new IllegalArgumentException("Invalid " + name + " value: " + value, e);
+        }
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, String name) {
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid " + name + " value: " + value, e);
+        }
+    }
 }
\ No newline at end of file
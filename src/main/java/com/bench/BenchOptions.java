@@ -0,0 +1,112 @@
+package com.bench;
+
+import java.util.Locale;
+
+// ./gradlew bench --args="--connections=50 --pipeline=16 --distribution=zipfian ..."
+final class BenchOptions {
+    String host = "127.0.0.1";
+    int port = 6379;
+    // 같은 JVM 에서 빈 포트로 서버를 띄워 측정한다 (host/port 무시)
+    boolean embedded;
+    String serverIo = "blocking";
+    int serverShards = 16;
+
+    int connections = 50;
+    int pipeline = 1;
+    int warmupSeconds = 2;
+    int durationSeconds = 10;
+
+    double getRatio = 0.9;
+    long keys = 100_000;
+    String distribution = "zipfian";
+    double zipfTheta = 0.99;
+    int valueSize = 100;
+    // SET 중 EX 를 붙이는 비율과 그때의 TTL
+    double ttlRatio = 0.0;
+    int ttlSeconds = 60;
+    // 측정 전에 모든 키를 한 번씩 SET 해서 GET 이 hit 하게 한다
+    boolean preload = true;
+
+    static BenchOptions parse(String[] args) {
+        BenchOptions options = new BenchOptions();
+        for (String arg : args) {
+            if (arg.startsWith("--host=")) {
+                options.host = arg.substring(7);
+            } else if (arg.startsWith("--port=")) {
+                options.port = positiveInt(arg.substring(7), "port");
+            } else if (arg.equals("--embedded")) {
+                options.embedded = true;
+            } else if (arg.startsWith("--server-io=")) {
+                options.serverIo = arg.substring(12).toLowerCase(Locale.ROOT);
+            } else if (arg.startsWith("--server-shards=")) {
+                options.serverShards = positiveInt(arg.substring(16), "server-shards");
+            } else if (arg.startsWith("--connections=")) {
+                options.connections = positiveInt(arg.substring(14), "connections");
+            } else if (arg.startsWith("--pipeline=")) {
+                options.pipeline = positiveInt(arg.substring(11), "pipeline");
+            } else if (arg.startsWith("--warmup=")) {
+                options.warmupSeconds = Integer.parseInt(arg.substring(9));
+            } else if (arg.startsWith("--duration=")) {
+                options.durationSeconds = positiveInt(arg.substring(11), "duration");
+            } else if (arg.startsWith("--get-ratio=")) {
+                options.getRatio = ratio(arg.substring(12), "get-ratio");
+            } else if (arg.startsWith("--keys=")) {
+                options.keys = positiveInt(arg.substring(7), "keys");
+            } else if (arg.startsWith("--distribution=")) {
+                options.distribution = arg.substring(15).toLowerCase(Locale.ROOT);
+            } else if (arg.startsWith("--zipf-theta=")) {
+                options.zipfTheta = Double.parseDouble(arg.substring(13));
+            } else if (arg.startsWith("--value-size=")) {
+                options.valueSize = positiveInt(arg.substring(13), "value-size");
+            } else if (arg.startsWith("--ttl-ratio=")) {
+                options.ttlRatio = ratio(arg.substring(12), "ttl-ratio");
+            } else if (arg.startsWith("--ttl=")) {
+                options.ttlSeconds = positiveInt(arg.substring(6), "ttl");
+            } else if (arg.equals("--no-preload")) {
+                options.preload = false;
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if (!options.distribution.equals("uniform") && !options.distribution.equals("zipfian")) {
+            throw new IllegalArgumentException("Invalid distribution value: " + options.distribution);
+        }
+        if (options.zipfTheta <= 0 || options.zipfTheta >= 1) {
+            throw new IllegalArgumentException("zipf-theta must be between 0 and 1.");
+        }
+        return options;
+    }
+
+    KeyDistribution keyDistribution() {
+        return distribution.equals("uniform")
+                ? KeyDistribution.uniform(keys)
+                : KeyDistribution.zipfian(keys, zipfTheta);
+    }
+
+    String describe() {
+        return String.format(Locale.ROOT,
+                "connections=%d pipeline=%d get=%.0f%% keys=%d distribution=%s%s value=%dB ttl=%.0f%%(%ds)",
+                connections, pipeline, getRatio * 100, keys, distribution,
+                distribution.equals("zipfian") ? "(" + zipfTheta + ")" : "", valueSize, ttlRatio * 100, ttlSeconds);
+    }
+
+    private static int positiveInt(String value, String name) {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed <= 0) {
+                throw new IllegalArgumentException(name + " must be positive.");
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + " value: " + value, e);
+        }
+    }
+
+    private static double ratio(String value, String name) {
+        double parsed = Double.parseDouble(value);
+        if (parsed < 0 || parsed > 1) {
+            throw new IllegalArgumentException(name + " must be between 0 and 1.");
+        }
+        return parsed;
+    }
+}
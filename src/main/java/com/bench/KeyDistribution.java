@@ -0,0 +1,52 @@
+package com.bench;
+
+import java.util.SplittableRandom;
+
+// 0 ~ keys-1 사이의 키 번호를 뽑는다. 스레드마다 자기 SplittableRandom 을 넘긴다
+public interface KeyDistribution {
+
+    long next(SplittableRandom random);
+
+    static KeyDistribution uniform(long keys) {
+        return random -> random.nextLong(keys);
+    }
+
+    // 순위 r 의 키가 1/r^theta 에 비례하게 뽑힌다 (YCSB ZipfianGenerator).
+    // 인기 순위를 그대로 키 번호로 쓰면 hot key 가 앞쪽 shard 에 몰리므로 FNV 해시로 흩어 놓는다
+    static KeyDistribution zipfian(long keys, double theta) {
+        double zetaN = zeta(keys, theta);
+        double zeta2 = zeta(2, theta);
+        double alpha = 1.0 / (1.0 - theta);
+        double eta = (1 - Math.pow(2.0 / keys, 1 - theta)) / (1 - zeta2 / zetaN);
+        return random -> {
+            double u = random.nextDouble();
+            double uz = u * zetaN;
+            long rank;
+            if (uz < 1.0) {
+                rank = 0;
+            } else if (uz < 1.0 + Math.pow(0.5, theta)) {
+                rank = 1;
+            } else {
+                rank = Math.min(keys - 1, (long) (keys * Math.pow(eta * u - eta + 1, alpha)));
+            }
+            return Math.floorMod(fnv(rank), keys);
+        };
+    }
+
+    private static double zeta(long n, double theta) {
+        double sum = 0;
+        for (long i = 1; i <= n; i++) {
+            sum += 1 / Math.pow(i, theta);
+        }
+        return sum;
+    }
+
+    private static long fnv(long value) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < 8; i++) {
+            hash ^= (value >>> (i * 8)) & 0xff;
+            hash *= 0x100000001B3L;
+        }
+        return hash;
+    }
+}
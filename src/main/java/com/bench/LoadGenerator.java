@@ -0,0 +1,313 @@
+package com.bench;
+
+import com.common.LatencyHistogram;
+import com.server.IoMode;
+import com.server.RedisServer;
+import com.server.ServerConfig;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+// 서버에 N 개 연결로 GET/SET 부하를 걸고 처리량과 지연 시간 분포를 출력한다.
+//
+//   ./gradlew bench --args="--embedded --connections=50 --pipeline=16 --distribution=zipfian"
+//   ./gradlew bench --args="--port=6379 --get-ratio=0.5 --value-size=1024 --ttl-ratio=0.2"
+//
+// 지연 시간은 pipeline 한 묶음을 보낸 시점부터 각 응답을 받은 시점까지다 (redis-benchmark 와 같은 기준).
+// 처음 warmup 초 동안의 결과는 버린다.
+public class LoadGenerator {
+    private static final int CONNECT_TIMEOUT_MILLIS = 5_000;
+    private static final int PRELOAD_CONNECTIONS = 8;
+    private static final int PRELOAD_PIPELINE = 128;
+
+    private static final byte[] GET = RespClient.bytes("GET");
+    private static final byte[] SET = RespClient.bytes("SET");
+    private static final byte[] EX = RespClient.bytes("EX");
+
+    private final BenchOptions options;
+    private final KeyDistribution distribution;
+
+    LoadGenerator(BenchOptions options) {
+        this.options = options;
+        this.distribution = options.keyDistribution();
+    }
+
+    public static void main(String[] args) throws Exception {
+        BenchOptions options = BenchOptions.parse(args);
+        if (options.embedded) {
+            options.port = startEmbeddedServer(options);
+            options.host = "127.0.0.1";
+        }
+        new LoadGenerator(options).run();
+        System.exit(0);
+    }
+
+    void run() throws Exception {
+        System.out.printf("target %s:%d%s%n  %s%n", options.host, options.port,
+                options.embedded ? " (embedded)" : "", options.describe());
+        if (options.preload) {
+            preload();
+        }
+
+        long now = System.nanoTime();
+        long recordFrom = now + TimeUnit.SECONDS.toNanos(options.warmupSeconds);
+        long endAt = recordFrom + TimeUnit.SECONDS.toNanos(options.durationSeconds);
+
+        List<Worker> workers = new ArrayList<>(options.connections);
+        CountDownLatch finished = new CountDownLatch(options.connections);
+        for (int i = 0; i < options.connections; i++) {
+            Worker worker = new Worker(i, recordFrom, endAt, finished);
+            workers.add(worker);
+            Thread thread = new Thread(worker, "bench-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        finished.await();
+
+        Report report = new Report();
+        for (Worker worker : workers) {
+            if (worker.failure.get() != null) {
+                System.err.println("[bench] connection " + worker.id + " failed: " + worker.failure.get().getMessage());
+            }
+            report.add(worker);
+        }
+        report.print(options.durationSeconds);
+    }
+
+    private void preload() throws Exception {
+        long started = System.nanoTime();
+        int connections = (int) Math.min(PRELOAD_CONNECTIONS, options.keys);
+        List<Thread> threads = new ArrayList<>(connections);
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        for (int c = 0; c < connections; c++) {
+            int offset = c;
+            Thread thread = new Thread(() -> {
+                byte[] value = randomValue(new SplittableRandom(offset));
+                try (RespClient client = connect()) {
+                    int pending = 0;
+                    for (long key = offset; key < options.keys; key += connections) {
+                        client.send(new byte[][]{SET, key(key), value});
+                        if (++pending == PRELOAD_PIPELINE) {
+                            drain(client, pending);
+                            pending = 0;
+                        }
+                    }
+                    drain(client, pending);
+                } catch (IOException e) {
+                    failure.compareAndSet(null, e);
+                }
+            }, "bench-preload-" + c);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        System.out.printf("preloaded %d keys in %d ms%n", options.keys,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    private static void drain(RespClient client, int replies) throws IOException {
+        client.flush();
+        for (int i = 0; i < replies; i++) {
+            client.readReply();
+        }
+    }
+
+    private RespClient connect() throws IOException {
+        RespClient client = new RespClient(options.host, options.port, CONNECT_TIMEOUT_MILLIS);
+        client.handshake();
+        return client;
+    }
+
+    private byte[] randomValue(SplittableRandom random) {
+        byte[] value = new byte[options.valueSize];
+        for (int i = 0; i < value.length; i++) {
+            value[i] = (byte) ('a' + random.nextInt(26));
+        }
+        return value;
+    }
+
+    private static byte[] key(long key) {
+        return RespClient.bytes("key:" + key);
+    }
+
+    // 스냅샷/저장 없이 빈 포트에 서버를 띄우고 접속될 때까지 기다린다
+    private static int startEmbeddedServer(BenchOptions options) throws Exception {
+        int port;
+        try (ServerSocket probe = new ServerSocket(0)) {
+            port = probe.getLocalPort();
+        }
+        ServerConfig config = ServerConfig.builder()
+                .port(port)
+                .ioMode(IoMode.valueOf(options.serverIo.toUpperCase(Locale.ROOT)))
+                .workerThreads(options.connections + PRELOAD_CONNECTIONS)
+                .backlog(Math.max(50, options.connections * 2))
+                .cacheShards(options.serverShards)
+                .cacheCapacity((int) Math.min(Integer.MAX_VALUE, Math.max(options.keys * 2, 10_000)))
+                .greeting(false)
+                .saveRules(List.of())
+                .snapshotPath(Files.createTempDirectory("bench").resolve("snapshot.dat").toString())
+                .build();
+        Thread server = new Thread(() -> new RedisServer(config).start(), "embedded-server");
+        server.setDaemon(true);
+        server.start();
+
+        long deadline = System.currentTimeMillis() + CONNECT_TIMEOUT_MILLIS;
+        while (true) {
+            try (RespClient client = new RespClient("127.0.0.1", port, CONNECT_TIMEOUT_MILLIS)) {
+                client.handshake();
+                return port;
+            } catch (IOException e) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw new IOException("embedded server did not start on port " + port, e);
+                }
+                Thread.sleep(20);
+            }
+        }
+    }
+
+    private final class Worker implements Runnable {
+        private final int id;
+        private final long recordFrom;
+        private final long endAt;
+        private final CountDownLatch finished;
+        private final AtomicReference<IOException> failure = new AtomicReference<>();
+
+        // 이 스레드에서만 쓰고, finished 이후에 합친다
+        private final LatencyHistogram getLatency = new LatencyHistogram();
+        private final LatencyHistogram setLatency = new LatencyHistogram();
+        private long hits;
+        private long misses;
+        private long errors;
+
+        private Worker(int id, long recordFrom, long endAt, CountDownLatch finished) {
+            this.id = id;
+            this.recordFrom = recordFrom;
+            this.endAt = endAt;
+            this.finished = finished;
+        }
+
+        @Override
+        public void run() {
+            SplittableRandom random = new SplittableRandom(System.nanoTime() ^ ((long) id << 32));
+            byte[] value = randomValue(random);
+            byte[] ttl = RespClient.bytes(Integer.toString(options.ttlSeconds));
+            boolean[] gets = new boolean[options.pipeline];
+
+            try (RespClient client = connect()) {
+                long batchStart;
+                while ((batchStart = System.nanoTime()) < endAt) {
+                    for (int i = 0; i < options.pipeline; i++) {
+                        byte[] key = key(distribution.next(random));
+                        gets[i] = random.nextDouble() < options.getRatio;
+                        if (gets[i]) {
+                            client.send(new byte[][]{GET, key});
+                        } else if (options.ttlRatio > 0 && random.nextDouble() < options.ttlRatio) {
+                            client.send(new byte[][]{SET, key, value, EX, ttl});
+                        } else {
+                            client.send(new byte[][]{SET, key, value});
+                        }
+                    }
+                    client.flush();
+
+                    boolean recording = batchStart >= recordFrom;
+                    for (int i = 0; i < options.pipeline; i++) {
+                        RespClient.Reply reply = client.readReply();
+                        if (!recording) {
+                            continue;
+                        }
+                        long latency = System.nanoTime() - batchStart;
+                        (gets[i] ? getLatency : setLatency).record(latency);
+                        if (reply == RespClient.Reply.ERROR) {
+                            errors++;
+                        } else if (gets[i]) {
+                            if (reply == RespClient.Reply.NIL) {
+                                misses++;
+                            } else {
+                                hits++;
+                            }
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                failure.set(e);
+            } finally {
+                finished.countDown();
+            }
+        }
+    }
+
+    private static final class Report {
+        private final LatencyHistogram all = new LatencyHistogram();
+        private final LatencyHistogram gets = new LatencyHistogram();
+        private final LatencyHistogram sets = new LatencyHistogram();
+        private long hits;
+        private long misses;
+        private long errors;
+
+        private void add(Worker worker) {
+            gets.merge(worker.getLatency);
+            sets.merge(worker.setLatency);
+            all.merge(worker.getLatency);
+            all.merge(worker.setLatency);
+            hits += worker.hits;
+            misses += worker.misses;
+            errors += worker.errors;
+        }
+
+        private void print(int seconds) {
+            System.out.printf(Locale.ROOT, "%nthroughput: %,.0f ops/s (%,d ops in %d s, errors %d)%n",
+                    all.count() / (double) seconds, all.count(), seconds, errors);
+            if (gets.count() > 0) {
+                System.out.printf(Locale.ROOT, "GET hit ratio: %.2f%%%n", 100.0 * hits / Math.max(1, hits + misses));
+            }
+            System.out.printf("%nlatency (us)      p50       p90       p99     p99.9       max      mean%n");
+            printRow("ALL", all);
+            printRow("GET", gets);
+            printRow("SET", sets);
+            printDistribution(all);
+        }
+
+        private static void printRow(String name, LatencyHistogram histogram) {
+            if (histogram.count() == 0) {
+                return;
+            }
+            System.out.printf(Locale.ROOT, "%-8s %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n", name,
+                    histogram.percentileMicros(50), histogram.percentileMicros(90),
+                    histogram.percentileMicros(99), histogram.percentileMicros(99.9),
+                    histogram.maxNanos() / 1_000.0, histogram.meanNanos() / 1_000.0);
+        }
+
+        // 2배 간격의 마이크로초 구간을 막대로 그린다
+        private static void printDistribution(LatencyHistogram histogram) {
+            long total = histogram.count();
+            if (total == 0) {
+                return;
+            }
+            long[] counts = histogram.countsByPowerOfTwoMicros();
+            System.out.printf("%nlatency distribution%n");
+            long cumulative = 0;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    continue;
+                }
+                cumulative += counts[i];
+                int bar = (int) Math.round(50.0 * counts[i] / total);
+                System.out.printf(Locale.ROOT, "  <= %,8d us %6.2f%% %7.3f%% %s%n", 1L << i,
+                        100.0 * counts[i] / total, 100.0 * cumulative / total, "#".repeat(bar));
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.bench;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+// 부하 생성용 최소 RESP2 클라이언트. 응답 내용은 버리고 종류만 돌려준다.
+// send 로 여러 개를 쌓고 flush 한 뒤 같은 수만큼 readReply 하면 pipeline 이 된다.
+final class RespClient implements AutoCloseable {
+    enum Reply {
+        STATUS, ERROR, INTEGER, BULK, NIL, ARRAY
+    }
+
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    private final Socket socket;
+    private final OutputStream out;
+    private final InputStream in;
+    private final byte[] line = new byte[512];
+
+    RespClient(String host, int port, int timeoutMillis) throws IOException {
+        socket = new Socket();
+        socket.setTcpNoDelay(true);
+        socket.connect(new InetSocketAddress(host, port), timeoutMillis);
+        socket.setSoTimeout(timeoutMillis);
+        out = new BufferedOutputStream(socket.getOutputStream(), 64 * 1024);
+        in = new BufferedInputStream(socket.getInputStream(), 64 * 1024);
+    }
+
+    // 서버가 접속 인사(+OK ...)를 보내는지 모르므로 PING 의 응답이 올 때까지 앞선 줄을 버린다
+    void handshake() throws IOException {
+        send(new byte[][]{bytes("PING")});
+        flush();
+        while (true) {
+            int length = readLine();
+            if (length == 5 && new String(line, 0, length, StandardCharsets.ISO_8859_1).equals("+PONG")) {
+                return;
+            }
+        }
+    }
+
+    void send(byte[][] arguments) throws IOException {
+        writeHeader('*', arguments.length);
+        for (byte[] argument : arguments) {
+            writeHeader('$', argument.length);
+            out.write(argument);
+            out.write(CRLF);
+        }
+    }
+
+    void flush() throws IOException {
+        out.flush();
+    }
+
+    Reply readReply() throws IOException {
+        int length = readLine();
+        if (length == 0) {
+            throw new IOException("empty reply line");
+        }
+        switch (line[0]) {
+            case '+':
+                return Reply.STATUS;
+            case '-':
+                return Reply.ERROR;
+            case ':':
+                return Reply.INTEGER;
+            case '$': {
+                long size = parseLong(length);
+                if (size < 0) {
+                    return Reply.NIL;
+                }
+                skip(size + 2);
+                return Reply.BULK;
+            }
+            case '*': {
+                long count = parseLong(length);
+                for (long i = 0; i < count; i++) {
+                    readReply();
+                }
+                return Reply.ARRAY;
+            }
+            default:
+                throw new IOException("unexpected reply type: " + (char) line[0]);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private void writeHeader(char type, int count) throws IOException {
+        out.write(type);
+        out.write(bytes(Integer.toString(count)));
+        out.write(CRLF);
+    }
+
+    // CRLF 앞까지를 line 에 담고 길이를 반환한다. 긴 줄(에러 메시지 등)은 뒤를 자른다
+    private int readLine() throws IOException {
+        int length = 0;
+        while (true) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("connection closed");
+            }
+            if (b == '\r') {
+                if (in.read() != '\n') {
+                    throw new IOException("expected LF after CR");
+                }
+                return length;
+            }
+            if (length < line.length) {
+                line[length] = (byte) b;
+            }
+            length++;
+        }
+    }
+
+    private long parseLong(int length) throws IOException {
+        boolean negative = line[1] == '-';
+        long value = 0;
+        for (int i = negative ? 2 : 1; i < Math.min(length, line.length); i++) {
+            int digit = line[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IOException("invalid length in reply");
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    private void skip(long bytes) throws IOException {
+        long remaining = bytes;
+        while (remaining > 0) {
+            long skipped = in.skip(remaining);
+            if (skipped <= 0) {
+                if (in.read() < 0) {
+                    throw new EOFException("connection closed");
+                }
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+    }
+}
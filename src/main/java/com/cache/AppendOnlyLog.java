@@ -0,0 +1,606 @@
+package com.cache;
+
+import com.common.Log;
+
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+// 쓰기 명령 로그 (AOF).
+//
+// file   : magic(4) version(2) record*
+// SET    : type(1)=SET keyLen(4) key valueLen(4) value expireAt(8) crc32(4)
+// DEL    : type(1)=DEL keyLen(4) key crc32(4)
+//
+// 만료는 절대 시각으로 남기므로 replay 시점에 이미 지난 SET 은 키를 지우는 것과 같다.
+// record 는 segment lock 안에서 메모리 buffer 에 붙이기만 하고, 파일 쓰기와 fsync 는
+// writer 스레드가 batch 단위로 한다. ALWAYS 면 같은 batch 의 writer 들이 force() 한 번을 나눠 쓴다.
+//
+// rewrite: 현재 store 내용만으로 새 로그를 만든다. 시작 이후의 record 는 rewrite buffer 에도 복사해 두고,
+// 덤프가 끝나면 writer 스레드가 buffer 를 새 파일 뒤에 붙여 fsync 한 뒤 rename 으로 교체한다.
+// 덤프와 buffer 가 겹치는 record 는 두 번 적용되지만 SET(절대 만료 시각)/DEL 은 다시 적용해도 결과가 같다.
+public class AppendOnlyLog<K, V> implements AutoCloseable {
+    static final int MAGIC = 0x4E4D4341; // "NMCA"
+    static final short VERSION = 1;
+    static final byte SET = 1;
+    static final byte DEL = 2;
+    static final int HEADER_SIZE = 4 + 2;
+
+    private static final long EVERYSEC_MILLIS = 1000;
+    private static final int REWRITE_BUFFER_BYTES = 64 * 1024;
+
+    private final Path path;
+    private final FsyncPolicy fsyncPolicy;
+    private final ValueCodec<K> keyCodec = ValueCodec.auto();
+    private final ValueCodec<V> valueCodec = ValueCodec.auto();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition hasRecords = lock.newCondition();
+    private final Condition synced = lock.newCondition();
+    private final Condition swapped = lock.newCondition();
+    // lock 안에서만 접근
+    private byte[] pending = new byte[64 * 1024];
+    private int pendingSize;
+    private long appendedSeq;
+    private long durableSeq;
+    private boolean running;
+    // 쓰기/fsync 실패. 설정된 뒤로는 쓰기를 받지 않고, rewrite 가 성공하면 풀린다 (쓰기 경로는 lock 없이 읽는다)
+    private volatile IOException failure;
+    // rewrite 중에만 존재한다
+    private byte[] rewriteBuffer;
+    private int rewriteBufferSize;
+    private RewriteSwap pendingSwap;
+    private long rewrites;
+
+    // writer 스레드에서만 접근
+    private FileChannel channel;
+    private byte[] spare = new byte[64 * 1024];
+    private long lastForceMillis;
+    private boolean unsynced;
+    private long forceCount;
+    // 마지막 rewrite(또는 open) 직후 크기. 자동 rewrite 판단 기준
+    private long baseSize;
+    private long currentSize;
+
+    private Thread writer;
+    private volatile AutoRewrite<K, V> autoRewrite;
+
+    public AppendOnlyLog(Path path, FsyncPolicy fsyncPolicy) {
+        this.path = path;
+        this.fsyncPolicy = fsyncPolicy;
+    }
+
+    // replay 가 끝난 뒤에 연다. 파일이 없으면 header 를 쓴다
+    public void open() throws IOException {
+        channel = openChannel();
+        if (channel.size() == 0) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putShort(VERSION);
+            writeFully(header.flip());
+            channel.force(true);
+        }
+        channel.position(channel.size());
+        baseSize = channel.size();
+        currentSize = baseSize;
+        lastForceMillis = System.currentTimeMillis();
+
+        lock.lock();
+        try {
+            running = true;
+        } finally {
+            lock.unlock();
+        }
+        writer = new Thread(this::writeLoop, "aof-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // 테스트가 쓰기 실패를 재현할 수 있도록 분리해 둔다
+    FileChannel openChannel() throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.READ);
+    }
+
+    public FsyncPolicy fsyncPolicy() {
+        return fsyncPolicy;
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    // 로그가 마지막 rewrite 때보다 percentage% 이상 커지고 minSize 를 넘으면 store 기준으로 자동 rewrite 한다
+    public void enableAutoRewrite(CacheStore<K, V> store, int percentage, long minSize) {
+        this.autoRewrite = percentage > 0 ? new AutoRewrite<>(store, percentage, minSize) : null;
+    }
+
+    // BGREWRITEAOF. 결과는 새 로그에 덤프한 키 수이고, 이미 진행 중이면 IllegalStateException 으로 실패한다
+    public CompletableFuture<Long> rewriteInBackground(CacheStore<K, V> store) {
+        lock.lock();
+        try {
+            if (!running) {
+                return CompletableFuture.failedFuture(new IllegalStateException("append only log is not open"));
+            }
+            if (rewriteBuffer != null) {
+                return CompletableFuture.failedFuture(new IllegalStateException("rewrite already in progress"));
+            }
+            rewriteBuffer = new byte[REWRITE_BUFFER_BYTES];
+            rewriteBufferSize = 0;
+        } finally {
+            lock.unlock();
+        }
+
+        CompletableFuture<Long> result = new CompletableFuture<>();
+        Thread rewriter = new Thread(() -> {
+            Path tmp = path.resolveSibling(path.getFileName() + ".rewrite");
+            try {
+                long keys = rewrite(store, tmp);
+                Log.info("[aof] rewrite finished (%d keys)", keys);
+                result.complete(keys);
+            } catch (IOException | RuntimeException e) {
+                lock.lock();
+                try {
+                    rewriteBuffer = null;
+                } finally {
+                    lock.unlock();
+                }
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException ignored) {
+                    // 다음 rewrite 가 덮어쓴다
+                }
+                Log.error("[aof] rewrite error: " + e.getMessage());
+                result.completeExceptionally(e);
+            }
+        }, "aof-rewrite");
+        rewriter.setDaemon(true);
+        rewriter.start();
+        return result;
+    }
+
+    public boolean isRewriting() {
+        lock.lock();
+        try {
+            return rewriteBuffer != null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long rewrites() {
+        lock.lock();
+        try {
+            return rewrites;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // lock 밖에서 미리 만든다
+    byte[] encodeSet(K key, V value, long expireAt) {
+        byte[] keyBytes = keyCodec.encode(key);
+        byte[] valueBytes = valueCodec.encode(value);
+        ByteBuffer record = ByteBuffer.allocate(1 + 4 + keyBytes.length + 4 + valueBytes.length + 8 + 4);
+        record.put(SET).putInt(keyBytes.length).put(keyBytes).putInt(valueBytes.length).put(valueBytes)
+                .putLong(expireAt);
+        return seal(record);
+    }
+
+    byte[] encodeDel(K key) {
+        byte[] keyBytes = keyCodec.encode(key);
+        ByteBuffer record = ByteBuffer.allocate(1 + 4 + keyBytes.length + 4);
+        record.put(DEL).putInt(keyBytes.length).put(keyBytes);
+        return seal(record);
+    }
+
+    // 메모리를 바꾸기 전에 호출한다. 앞서 쓰기가 실패했으면 로그에 남지 않을 쓰기를 거절한다
+    void checkWritable() {
+        IOException error = failure;
+        if (error != null) {
+            throw failed(error);
+        }
+    }
+
+    // segment lock 안에서 호출해 같은 키의 명령 순서가 로그에도 그대로 남게 한다
+    void append(byte[] record) {
+        lock.lock();
+        try {
+            if (pendingSize + record.length > pending.length) {
+                pending = Arrays.copyOf(pending, Math.max(pending.length * 2, pendingSize + record.length));
+            }
+            System.arraycopy(record, 0, pending, pendingSize, record.length);
+            pendingSize += record.length;
+            if (rewriteBuffer != null) {
+                if (rewriteBufferSize + record.length > rewriteBuffer.length) {
+                    rewriteBuffer = Arrays.copyOf(rewriteBuffer,
+                            Math.max(rewriteBuffer.length * 2, rewriteBufferSize + record.length));
+                }
+                System.arraycopy(record, 0, rewriteBuffer, rewriteBufferSize, record.length);
+                rewriteBufferSize += record.length;
+            }
+            appendedSeq++;
+            hasRecords.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // lock 밖에서 호출한다. ALWAYS 면 지금까지 붙인 record 가 fsync 될 때까지 기다린다
+    void awaitDurable() {
+        if (fsyncPolicy != FsyncPolicy.ALWAYS) {
+            return;
+        }
+        lock.lock();
+        try {
+            long target = appendedSeq;
+            while (durableSeq < target && failure == null && running) {
+                synced.awaitUninterruptibly();
+            }
+            if (failure != null) {
+                throw failed(failure);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long forceCount() {
+        return forceCount;
+    }
+
+    // 남은 record 를 모두 쓰고 fsync 한 뒤 닫는다
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (!running) {
+                return;
+            }
+            running = false;
+            hasRecords.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.lock();
+        try {
+            // writer 가 끝난 뒤 들어온 교체 요청은 처리할 스레드가 없다
+            if (pendingSwap != null) {
+                pendingSwap.error = new IOException("append only log closed during rewrite");
+                pendingSwap.done = true;
+                pendingSwap = null;
+                swapped.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+        channel.close();
+    }
+
+    private void writeLoop() {
+        while (true) {
+            byte[] batch;
+            int batchSize;
+            long batchSeq;
+            boolean stopping;
+            lock.lock();
+            try {
+                if (pendingSwap != null) {
+                    finishRewrite(pendingSwap);
+                    continue;
+                }
+                while (pendingSize == 0 && running && pendingSwap == null) {
+                    if (fsyncPolicy == FsyncPolicy.EVERYSEC && unsynced) {
+                        // 쓰기가 멈춰도 1초 안에 fsync 되도록 깨어난다
+                        hasRecords.awaitNanos(TimeUnit.MILLISECONDS.toNanos(EVERYSEC_MILLIS));
+                        break;
+                    }
+                    hasRecords.awaitUninterruptibly();
+                }
+                if (pendingSwap != null) {
+                    continue;
+                }
+                // 두 buffer 를 바꿔 끼워 writer 가 쓰는 동안에도 append 가 막히지 않게 한다
+                batch = pending;
+                batchSize = pendingSize;
+                batchSeq = appendedSeq;
+                pending = spare;
+                pendingSize = 0;
+                stopping = !running;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+            spare = batch;
+
+            IOException error = null;
+            try {
+                if (batchSize > 0) {
+                    writeFully(ByteBuffer.wrap(batch, 0, batchSize));
+                    currentSize += batchSize;
+                    unsynced = true;
+                }
+                syncIfDue(stopping);
+            } catch (IOException e) {
+                error = e;
+                Log.error("[aof] write error: " + e.getMessage());
+            }
+
+            lock.lock();
+            try {
+                if (error != null) {
+                    failure = error;
+                } else {
+                    durableSeq = batchSeq;
+                }
+                synced.signalAll();
+                if (stopping && pendingSize == 0) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+            maybeAutoRewrite();
+        }
+    }
+
+    private void maybeAutoRewrite() {
+        AutoRewrite<K, V> auto = autoRewrite;
+        if (auto == null || auto.store().isLoading() || currentSize < auto.minSize()
+                || currentSize < baseSize + baseSize * auto.percentage() / 100 || isRewriting()) {
+            return;
+        }
+        Log.info("[aof] size %d bytes grew %d%% over %d bytes, starting rewrite",
+                currentSize, auto.percentage(), baseSize);
+        rewriteInBackground(auto.store());
+    }
+
+    // rewrite 스레드: cut 시점의 store 내용을 임시 파일에 SET record 로 쓰고 writer 스레드의 교체를 기다린다
+    private long rewrite(CacheStore<K, V> store, Path tmp) throws IOException {
+        FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        long keys = 0;
+        try {
+            OutputStream stream = new BufferedOutputStream(Channels.newOutputStream(out), REWRITE_BUFFER_BYTES);
+            stream.write(ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putShort(VERSION).array());
+            long now = store.clock().millis();
+            int epoch = store.beginSnapshot();
+            try {
+                long[] count = new long[1];
+                for (int s = 0; s < store.shardCount(); s++) {
+                    store.dumpSegment(s, epoch, now, (key, value, expireAt) -> {
+                        stream.write(encodeSet(key, value, expireAt));
+                        count[0]++;
+                    });
+                }
+                keys = count[0];
+            } finally {
+                store.endSnapshot();
+            }
+            stream.flush();
+            out.force(true);
+        } catch (IOException | RuntimeException e) {
+            out.close();
+            throw e;
+        }
+
+        RewriteSwap swap = new RewriteSwap(tmp, out);
+        lock.lock();
+        try {
+            if (!running) {
+                swap.error = new IOException("append only log closed during rewrite");
+                swap.done = true;
+            }
+            pendingSwap = swap.done ? null : swap;
+            hasRecords.signal();
+            while (!swap.done) {
+                swapped.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (swap.error != null) {
+            out.close();
+            throw swap.error;
+        }
+        return keys;
+    }
+
+    // writer 스레드, lock 안에서 호출된다. 쓰는 중인 batch 가 없으므로 파일을 바꿔 끼워도 안전하다.
+    // 그동안 append 는 멈추지만 rewrite buffer 만큼만 쓰면 된다.
+    private void finishRewrite(RewriteSwap swap) {
+        pendingSwap = null;
+        try {
+            ByteBuffer tail = ByteBuffer.wrap(rewriteBuffer, 0, rewriteBufferSize);
+            while (tail.hasRemaining()) {
+                swap.channel.write(tail);
+            }
+            swap.channel.force(true);
+            Files.move(swap.tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            channel.close();
+            channel = swap.channel;
+            channel.position(channel.size());
+            // 아직 쓰지 않은 record 는 rewrite buffer 에 모두 들어 있었다
+            pendingSize = 0;
+            durableSeq = appendedSeq;
+            unsynced = false;
+            forceCount++;
+            lastForceMillis = System.currentTimeMillis();
+            baseSize = channel.size();
+            currentSize = baseSize;
+            rewrites++;
+            // 새 로그는 현재 store 내용으로 만들었으므로 이전 실패로 빠진 record 가 없다
+            failure = null;
+            synced.signalAll();
+        } catch (IOException e) {
+            swap.error = e;
+        } finally {
+            rewriteBuffer = null;
+            swap.done = true;
+            swapped.signalAll();
+        }
+    }
+
+    private void syncIfDue(boolean stopping) throws IOException {
+        if (!unsynced) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        boolean due = switch (fsyncPolicy) {
+            case ALWAYS -> true;
+            case EVERYSEC -> now - lastForceMillis >= EVERYSEC_MILLIS;
+            case NO -> false;
+        };
+        if (due || (stopping && fsyncPolicy != FsyncPolicy.NO)) {
+            channel.force(false);
+            forceCount++;
+            lastForceMillis = now;
+            unsynced = false;
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    // 로그를 처음부터 store 에 다시 적용한다 (open 전에, store 에 로그를 붙이기 전에 호출).
+    // 마지막 record 가 잘렸거나 checksum 이 틀리면 그 앞까지만 적용하고 파일을 거기서 자른다.
+    // 중간 record 가 깨졌으면 뒤의 정상 record 를 잃지 않도록 자르지 않고 SnapshotFormatException 으로 실패한다.
+    public long replay(CacheStore<K, V> store) throws IOException {
+        if (!Files.exists(path) || Files.size(path) == 0) {
+            return 0;
+        }
+        long applied = 0;
+        long validEnd;
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(in, header);
+            if (header.getInt(0) != MAGIC) {
+                throw new SnapshotFormatException("not an append only log: " + path);
+            }
+            if (header.getShort(4) != VERSION) {
+                throw new SnapshotFormatException("unsupported append only log version: " + header.getShort(4));
+            }
+            validEnd = in.position();
+
+            long now = store.clock().millis();
+            try {
+                while (in.position() < in.size()) {
+                    applyRecord(in, store, now);
+                    applied++;
+                    validEnd = in.position();
+                }
+            } catch (EOFException | SnapshotFormatException e) {
+                // EOF 는 record 중간에서 파일이 끝난 것이고, 다 읽은 record 가 파일 끝에 닿았다면 역시 마지막 record 다
+                if (!(e instanceof EOFException) && in.position() < in.size()) {
+                    throw new SnapshotFormatException(String.format(
+                            "corrupt append only log record at offset %d of %d bytes in %s (%s)",
+                            validEnd, in.size(), path, e.getMessage()), e);
+                }
+                Log.warn("[aof] ignoring broken tail at offset %d (%s)", validEnd, e.getMessage());
+                in.truncate(validEnd);
+            }
+        }
+        Log.info("[aof] replayed %d commands from %s", applied, path);
+        return applied;
+    }
+
+    private void applyRecord(FileChannel in, CacheStore<K, V> store, long now) throws IOException {
+        CRC32 crc = new CRC32();
+        byte type = read(in, 1, crc).get();
+        byte[] key = readBytes(in, crc);
+        if (type == SET) {
+            byte[] value = readBytes(in, crc);
+            long expireAt = read(in, 8, crc).getLong();
+            verify(in, crc);
+            store.restoreEntry(keyCodec.decode(key), valueCodec.decode(value), expireAt, now);
+        } else if (type == DEL) {
+            verify(in, crc);
+            store.del(keyCodec.decode(key));
+        } else {
+            throw new SnapshotFormatException("unknown record type: " + type);
+        }
+    }
+
+    private static byte[] readBytes(FileChannel in, CRC32 crc) throws IOException {
+        int length = read(in, 4, crc).getInt();
+        if (length < 0) {
+            throw new SnapshotFormatException("negative record length");
+        }
+        if (length > in.size() - in.position()) {
+            throw new EOFException("record length out of range");
+        }
+        return read(in, length, crc).array();
+    }
+
+    private static void verify(FileChannel in, CRC32 crc) throws IOException {
+        ByteBuffer stored = ByteBuffer.allocate(4);
+        readFully(in, stored);
+        if (stored.getInt(0) != (int) crc.getValue()) {
+            throw new SnapshotFormatException("record checksum mismatch");
+        }
+    }
+
+    private static ByteBuffer read(FileChannel in, int length, CRC32 crc) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        readFully(in, buffer);
+        crc.update(buffer.array());
+        return buffer.flip();
+    }
+
+    private static void readFully(FileChannel in, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (in.read(buffer) < 0) {
+                throw new EOFException("append only log truncated");
+            }
+        }
+    }
+
+    private record AutoRewrite<K, V>(CacheStore<K, V> store, int percentage, long minSize) {
+    }
+
+    private static final class RewriteSwap {
+        private final Path tmp;
+        private final FileChannel channel;
+        // lock 안에서만 접근
+        private boolean done;
+        private IOException error;
+
+        private RewriteSwap(Path tmp, FileChannel channel) {
+            this.tmp = tmp;
+            this.channel = channel;
+        }
+    }
+
+    private static AppendOnlyLogException failed(IOException cause) {
+        return new AppendOnlyLogException("Errors writing to the append only log: " + cause, cause);
+    }
+
+    private static byte[] seal(ByteBuffer record) {
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 0, record.position());
+        record.putInt((int) crc.getValue());
+        return record.array();
+    }
+}
@@ -0,0 +1,8 @@
+package com.cache;
+
+// AOF 쓰기/fsync 가 실패한 뒤의 쓰기 명령. 실패 이후에는 로그에 남길 수 없는 쓰기를 받지 않는다
+public class AppendOnlyLogException extends RuntimeException {
+    public AppendOnlyLogException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,255 @@
+package com.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+// 바이너리 snapshot 형식 (version 1)
+//
+// header : magic(4) version(2) segments(4) savedAt(8)
+// block  : type(1)=BLOCK segment(4) count(4) length(4) payload(length) crc32(4)
+//          payload = count x [keyLen(4) key valueLen(4) value expireAt(8)], segment 의 LRU 순서(오래된 것부터)
+// end    : type(1)=END entries(8) crc32(4)
+//
+// crc 는 type 부터 payload 까지(end 는 entries 까지)를 덮는다. END 가 없으면 중간에 끊긴 파일이다.
+final class BinarySnapshot {
+    static final int MAGIC = 0x4E4D4353; // "NMCS"
+    static final short VERSION = 1;
+    static final byte BLOCK = 1;
+    static final byte END = (byte) 0xFF;
+    static final int HEADER_SIZE = 4 + 2 + 4 + 8;
+    static final int BLOCK_HEADER_SIZE = 1 + 4 + 4 + 4;
+
+    // block 하나가 이 크기를 넘으면 내보낸다
+    private static final int BLOCK_TARGET_BYTES = 64 * 1024;
+
+    private BinarySnapshot() {
+    }
+
+    // 임시 파일에 쓰고 fsync 한 뒤 rename 으로 교체한다. 쓴 키 수를 반환한다
+    static <K, V> long write(CacheStore<K, V> store, Path path, ValueCodec<K> keyCodec, ValueCodec<V> valueCodec)
+            throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        long written = 0;
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putShort(VERSION).putInt(store.shardCount()).putLong(store.clock().millis());
+            writeFully(channel, header.flip());
+
+            BlockWriter block = new BlockWriter(channel);
+            long now = store.clock().millis();
+            // 전체를 복사하지 않고 cut 시점의 엔트리를 살아 있는 map 에서 바로 읽어 내보낸다
+            int epoch = store.beginSnapshot();
+            try {
+                for (int s = 0; s < store.shardCount(); s++) {
+                    block.begin(s);
+                    store.dumpSegment(s, epoch, now, (key, value, expireAt) ->
+                            block.add(keyCodec.encode(key), valueCodec.encode(value), expireAt));
+                    block.flush();
+                }
+            } finally {
+                store.endSnapshot();
+            }
+            written = block.total;
+
+            ByteBuffer end = ByteBuffer.allocate(1 + 8 + 4);
+            end.put(END).putLong(written);
+            end.putInt(crc(end.array(), 0, 9));
+            writeFully(channel, end.flip());
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return written;
+    }
+
+    static boolean hasMagic(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                // 4바이트를 채울 때까지 읽는다
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+        }
+    }
+
+    // header 와 block header 만 따라가며 block 위치를 모은다. payload 는 읽지 않는다.
+    // END 가 없거나 entries 수가 block count 합과 다르면 잘린 파일로 본다
+    static Index index(FileChannel channel) throws IOException {
+        long size = channel.size();
+        ByteBuffer header = readAt(channel, 0, HEADER_SIZE, size);
+        if (header.getInt() != MAGIC) {
+            throw new SnapshotFormatException("not a binary snapshot");
+        }
+        short version = header.getShort();
+        if (version != VERSION) {
+            throw new SnapshotFormatException("unsupported snapshot version: " + version);
+        }
+        int segments = header.getInt();
+
+        List<Block> blocks = new ArrayList<>();
+        long position = HEADER_SIZE;
+        long total = 0;
+        while (true) {
+            byte type = readAt(channel, position, 1, size).get();
+            if (type == END) {
+                ByteBuffer end = readAt(channel, position + 1, 8 + 4, size);
+                long expected = end.getLong();
+                byte[] covered = ByteBuffer.allocate(9).put(END).putLong(expected).array();
+                if (end.getInt() != crc(covered, 0, 9) || expected != total) {
+                    throw new SnapshotFormatException("snapshot trailer mismatch");
+                }
+                return new Index(segments, blocks);
+            }
+            if (type != BLOCK) {
+                throw new SnapshotFormatException("unknown block type: " + type);
+            }
+
+            ByteBuffer blockHeader = readAt(channel, position + 1, BLOCK_HEADER_SIZE - 1, size);
+            int segment = blockHeader.getInt();
+            int count = blockHeader.getInt();
+            int length = blockHeader.getInt();
+            if (count < 0 || length < 0 || position + BLOCK_HEADER_SIZE + length + 4 > size) {
+                throw new SnapshotFormatException("invalid block header");
+            }
+            blocks.add(new Block(position, segment, count, length));
+            total += count;
+            position += BLOCK_HEADER_SIZE + length + 4;
+        }
+    }
+
+    // bytes 는 block 하나 전체(header 부터 crc 까지). 이미 만료된(expireAt <= now) 엔트리는 건너뛴다
+    static <K, V> void readBlock(ByteBuffer bytes, Block block, ValueCodec<K> keyCodec, ValueCodec<V> valueCodec,
+                                 long now, BiConsumer<K, CacheEntry<V>> sink) throws SnapshotFormatException {
+        int covered = BLOCK_HEADER_SIZE + block.length();
+        CRC32 crc = new CRC32();
+        crc.update(bytes.slice(0, covered));
+        if ((int) crc.getValue() != bytes.getInt(covered)) {
+            throw new SnapshotFormatException("block checksum mismatch");
+        }
+
+        ByteBuffer payload = bytes.slice(BLOCK_HEADER_SIZE, block.length());
+        try {
+            for (int i = 0; i < block.count(); i++) {
+                byte[] key = new byte[payload.getInt()];
+                payload.get(key);
+                byte[] value = new byte[payload.getInt()];
+                payload.get(value);
+                long expireAt = payload.getLong();
+                if (expireAt != -1 && expireAt <= now) {
+                    continue;
+                }
+                sink.accept(keyCodec.decode(key), CacheEntry.expiringAt(valueCodec.decode(value), expireAt));
+            }
+        } catch (RuntimeException e) {
+            throw new SnapshotFormatException("malformed block payload", e);
+        }
+        if (payload.hasRemaining()) {
+            throw new SnapshotFormatException("trailing bytes in block");
+        }
+    }
+
+    private static ByteBuffer readAt(FileChannel channel, long position, int length, long size) throws IOException {
+        if (position + length > size) {
+            throw new EOFException("snapshot truncated");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("snapshot truncated");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static int crc(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+
+    // segments 는 저장할 때의 shard 수
+    record Index(int segments, List<Block> blocks) {
+    }
+
+    // offset 은 block type 바이트의 파일 내 위치, segment 는 저장할 때의 shard 번호
+    record Block(long offset, int segment, int count, int length) {
+        long size() {
+            return BLOCK_HEADER_SIZE + length + 4L;
+        }
+    }
+
+    // block payload 를 메모리에 모았다가 header/crc 와 함께 한 번에 내보낸다
+    private static final class BlockWriter {
+        private final FileChannel channel;
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(BLOCK_TARGET_BYTES + 1024);
+        private final DataOutputStream payload = new DataOutputStream(bytes);
+        private int segment;
+        private int count;
+        private long total;
+
+        private BlockWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        private void begin(int segment) {
+            this.segment = segment;
+        }
+
+        private void add(byte[] key, byte[] value, long expireAt) throws IOException {
+            payload.writeInt(key.length);
+            payload.write(key);
+            payload.writeInt(value.length);
+            payload.write(value);
+            payload.writeLong(expireAt);
+            count++;
+            total++;
+            if (bytes.size() >= BLOCK_TARGET_BYTES) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            if (count == 0) {
+                return;
+            }
+            ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_SIZE);
+            header.put(BLOCK).putInt(segment).putInt(count).putInt(bytes.size());
+
+            CRC32 crc = new CRC32();
+            crc.update(header.array());
+            byte[] body = bytes.toByteArray();
+            crc.update(body);
+
+            ByteBuffer trailer = ByteBuffer.allocate(4).putInt((int) crc.getValue());
+            ByteBuffer[] buffers = {header.flip(), ByteBuffer.wrap(body), trailer.flip()};
+            long remaining = BLOCK_HEADER_SIZE + body.length + 4;
+            while (remaining > 0) {
+                remaining -= channel.write(buffers);
+            }
+
+            bytes.reset();
+            count = 0;
+        }
+    }
+}
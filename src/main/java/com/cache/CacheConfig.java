@@ -0,0 +1,121 @@
+package com.cache;
+
+import com.common.CachedClock;
+import com.common.Clock;
+
+public class CacheConfig {
+    private static final int DEFAULT_CAPACITY = 10_000;
+    private static final int DEFAULT_SHARDS = 1;
+    private static final EvictionPolicyType DEFAULT_EVICTION_POLICY = EvictionPolicyType.LRU;
+    private static final long DEFAULT_MAX_MEMORY = 0; // 0 = 제한 없음
+    private static final StorageType DEFAULT_STORAGE = StorageType.HEAP;
+
+    private final int capacity;
+    private final int shards;
+    private final EvictionPolicyType evictionPolicy;
+    private final Clock clock;
+    private final long maxMemory;
+    private final StorageType storage;
+
+    private CacheConfig(Builder builder) {
+        this.capacity = builder.capacity;
+        this.shards = builder.shards;
+        this.evictionPolicy = builder.evictionPolicy;
+        this.clock = builder.clock;
+        this.maxMemory = builder.maxMemory;
+        this.storage = builder.storage;
+    }
+
+    public static Builder builder() {
+        return new Builder()
+                .capacity(DEFAULT_CAPACITY)
+                .shards(DEFAULT_SHARDS)
+                .evictionPolicy(DEFAULT_EVICTION_POLICY)
+                .clock(CachedClock.shared())
+                .maxMemory(DEFAULT_MAX_MEMORY)
+                .storage(DEFAULT_STORAGE);
+    }
+
+    public static CacheConfig defaultConfig() {
+        return builder().build();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int shards() {
+        return shards;
+    }
+
+    public EvictionPolicyType evictionPolicy() {
+        return evictionPolicy;
+    }
+
+    public Clock clock() {
+        return clock;
+    }
+
+    public long maxMemory() {
+        return maxMemory;
+    }
+
+    public StorageType storage() {
+        return storage;
+    }
+
+    public static final class Builder {
+        private int capacity = DEFAULT_CAPACITY;
+        private int shards = DEFAULT_SHARDS;
+        private EvictionPolicyType evictionPolicy = DEFAULT_EVICTION_POLICY;
+        private Clock clock = CachedClock.shared();
+        private long maxMemory = DEFAULT_MAX_MEMORY;
+        private StorageType storage = DEFAULT_STORAGE;
+
+        private Builder() {
+        }
+
+        public Builder capacity(int capacity) {
+            this.capacity = capacity;
+            return this;
+        }
+
+        public Builder shards(int shards) {
+            this.shards = shards;
+            return this;
+        }
+
+        public Builder evictionPolicy(EvictionPolicyType evictionPolicy) {
+            this.evictionPolicy = evictionPolicy;
+            return this;
+        }
+
+        public Builder clock(Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        public Builder maxMemory(long maxMemory) {
+            this.maxMemory = maxMemory;
+            return this;
+        }
+
+        public Builder storage(StorageType storage) {
+            this.storage = storage;
+            return this;
+        }
+
+        public CacheConfig build() {
+            if (capacity <= 0) {
+                throw new IllegalArgumentException("capacity must be positive.");
+            }
+            if (shards <= 0 || shards > capacity) {
+                throw new IllegalArgumentException("shards must be between 1 and capacity.");
+            }
+            if (maxMemory < 0) {
+                throw new IllegalArgumentException("maxMemory must not be negative.");
+            }
+            return new CacheConfig(this);
+        }
+    }
+}
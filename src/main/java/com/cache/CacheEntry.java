@@ -1,31 +1,122 @@
 package com.cache;
 
+import com.common.CachedClock;
+
 import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 public class CacheEntry<T> implements Serializable {
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<CacheEntry> SNAPSHOT_CLAIM =
+            AtomicIntegerFieldUpdater.newUpdater(CacheEntry.class, "snapshotClaim");
+
     private final T value;
     private final long expireAt; // ex) currentTimeMillis + 1000ms
+    private transient long memorySize; // segment 에 들어갈 때 추정한 크기 (key 포함)
+    // segment 에 들어갈 때의 snapshot epoch. 이 값보다 큰 epoch 의 snapshot 에 포함된다
+    private transient int snapshotEpoch;
+    // 이 엔트리를 마지막으로 기록한 snapshot epoch (dump 스레드와 덮어쓰는 쪽 중 하나만 기록한다)
+    private transient volatile int snapshotClaim;
+    // 만료 색인에 들어 있는 이 엔트리의 Timer. TTL 이 없으면 null (segment lock 안에서만 접근)
+    private transient TimingWheel.Timer<?> expirationTimer;
 
     public CacheEntry(T value, long ttl) {
+        this(value, ttl, CachedClock.shared().millis());
+    }
+
+    public CacheEntry(T value, long ttl, long now) {
         this.value = value;
-        this.expireAt = calculateExpireAt(ttl);
+        this.expireAt = ttl > 0 ? now + ttl : -1;
+    }
+
+    // 절대 만료 시각으로 만든다 (복원 / off-heap 용). -1 이면 TTL 없음
+    static <T> CacheEntry<T> expiringAt(T value, long expireAt) {
+        return new CacheEntry<>(value, expireAt, 0);
     }
 
     public boolean isExpired() {
-        return expireAt != -1 && System.currentTimeMillis() >= expireAt;
+        return isExpired(CachedClock.shared().millis());
+    }
+
+    public boolean isExpired(long now) {
+        return expireAt != -1 && now >= expireAt;
+    }
+
+    public long getExpireAt() {
+        return expireAt;
+    }
+
+    public boolean hasTtl() {
+        return expireAt != -1;
     }
 
     public T getValue() {
         return value;
     }
 
+    long memorySize() {
+        return memorySize;
+    }
+
+    void memorySize(long memorySize) {
+        this.memorySize = memorySize;
+    }
+
+    TimingWheel.Timer<?> expirationTimer() {
+        return expirationTimer;
+    }
+
+    void expirationTimer(TimingWheel.Timer<?> timer) {
+        this.expirationTimer = timer;
+    }
+
+    int snapshotEpoch() {
+        return snapshotEpoch;
+    }
+
+    void snapshotEpoch(int epoch) {
+        this.snapshotEpoch = epoch;
+    }
+
+    // epoch 의 snapshot 에 이 엔트리를 기록할 권리를 가져간다. 이미 누가 가져갔으면 false
+    boolean claimForSnapshot(int epoch) {
+        while (true) {
+            int claimed = snapshotClaim;
+            if (claimed >= epoch) {
+                return false;
+            }
+            if (SNAPSHOT_CLAIM.compareAndSet(this, claimed, epoch)) {
+                return true;
+            }
+        }
+    }
+
+    // 값 자체가 차지하는 추정 바이트 수
+    long valueMemorySize() {
+        return MemoryEstimator.sizeOf(value);
+    }
+
+    // segment 에서 빠질 때 호출된다. heap 엔트리는 할 일이 없다
+    void release() {
+    }
+
+    // true 면 읽는 도중 release 되어 getValue() 결과를 믿을 수 없다
+    boolean isReleased() {
+        return false;
+    }
+
+    // lock 밖에서도 안전하게 들고 있을 수 있는 heap 복사본
+    CacheEntry<T> onHeap() {
+        return this;
+    }
+
     public long getRemainingTTL() {
-        if (expireAt == -1) return -1;
-        return Math.max(0, expireAt - System.currentTimeMillis());
+        return getRemainingTTL(CachedClock.shared().millis());
     }
 
-    private static long calculateExpireAt(long ttl) {
-        return ttl > 0 ? System.currentTimeMillis() + ttl : -1;
+    public long getRemainingTTL(long now) {
+        if (expireAt == -1) return -1;
+        return Math.max(0, expireAt - now);
     }
 
     @Override
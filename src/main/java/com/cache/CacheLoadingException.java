@@ -0,0 +1,8 @@
+package com.cache;
+
+// warm start 중 요청한 키의 segment 가 대기 시간 안에 snapshot 에서 올라오지 않았을 때
+public class CacheLoadingException extends RuntimeException {
+    public CacheLoadingException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,444 @@
+package com.cache;
+
+import com.common.Clock;
+import com.common.Log;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// 하나의 shard: 자신만의 map, LRU 순서, lock 을 가진다
+class CacheSegment<K, V> implements Serializable {
+    private static final long EXPIRATION_TICK_MILLIS = 10;
+    private static final Log.Counter EVICTIONS = Log.counter("[LRU] evicted", "keys");
+
+    private final Map<K, CacheEntry<V>> store = new ConcurrentHashMap<>();
+    private final EvictionPolicy<K> policy;
+    private final ReentrantLock lock = new ReentrantLock();
+    // TTL 이 있는 키만 들어가는 만료 색인 (lock 안에서만 접근)
+    private final Clock clock;
+    private final TimingWheel<K> expirations;
+    private final ArrayDeque<TimingWheel.Timer<K>> dueTimers = new ArrayDeque<>();
+    // 0 이면 바이트 한도 없이 키 수(capacity)로만 eviction 한다
+    private final long maxMemory;
+    // lock 안에서만 쓰고, 통계 조회는 lock 없이 읽는다
+    private volatile long usedMemory;
+    private volatile long evictedKeys;
+    private volatile long expiredKeys;
+    // OFFHEAP 일 때만 존재한다
+    private final transient SlabAllocator slabs;
+    // 쓰기 명령을 남길 로그 (없으면 null). 만료/eviction 은 남기지 않는다
+    private volatile AppendOnlyLog<K, V> appendLog;
+    // 새로 들어오는 엔트리에 찍는 snapshot epoch (lock 안에서만 접근)
+    private int epoch;
+    // 진행 중인 snapshot 이 이 segment 를 아직 다 내보내지 못했을 때만 존재한다 (lock 안에서만 접근)
+    private SnapshotCut<K, V> cut;
+
+    CacheSegment(int capacity, long maxMemory, EvictionPolicyType policyType, StorageType storage, Clock clock) {
+        this.policy = policyType.create(capacity);
+        this.maxMemory = maxMemory;
+        this.slabs = storage == StorageType.OFFHEAP ? new SlabAllocator() : null;
+        this.clock = clock;
+        this.expirations = new TimingWheel<>(EXPIRATION_TICK_MILLIS, clock.millis());
+    }
+
+    // lock 밖에서 만든다. off-heap 이면 여기서 chunk 를 할당하고 값을 복사한다
+    CacheEntry<V> createEntry(K key, V value, long ttl, long now) {
+        return createEntryAt(key, value, ttl > 0 ? now + ttl : -1);
+    }
+
+    CacheEntry<V> createEntryAt(K key, V value, long expireAt) {
+        CacheEntry<V> entry = slabs != null
+                ? OffHeapCacheEntry.store(slabs, value, expireAt)
+                : CacheEntry.expiringAt(value, expireAt);
+        entry.memorySize(MemoryEstimator.estimate(key, entry));
+        if (maxMemory > 0 && entry.memorySize() > maxMemory) {
+            entry.release();
+            throw new MaxMemoryExceededException("command not allowed when used memory > 'maxmemory'");
+        }
+        return entry;
+    }
+
+    // record 는 lock 밖에서 만든 AOF record (로그가 없으면 null)
+    void set(K key, CacheEntry<V> entry, byte[] record) {
+        lock.lock();
+        try {
+            if (record != null) {
+                appendLog.append(record);
+            }
+            put(key, entry);
+            trackExpiration(key, entry);
+            updateLRU(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    CacheEntry<V> get(K key) {
+        CacheEntry<V> entry = store.get(key);
+
+        if (entry == null || entry.isExpired(clock.millis())) {
+            return null;
+        }
+
+        // 조회는 키 수를 늘리지 않으므로 eviction 검사 없이 접근 기록만 남긴다
+        if (policy.isConcurrent()) {
+            policy.recordHit(key);
+            return entry;
+        }
+
+        lock.lock();
+        try {
+            policy.recordHit(key);
+        } finally {
+            lock.unlock();
+        }
+        return entry;
+    }
+
+    // 배치 조회: 접근 기록은 한 번의 lock 안에서 모아서 남긴다
+    List<CacheEntry<V>> getAll(List<K> keys) {
+        List<CacheEntry<V>> entries = new ArrayList<>(keys.size());
+        boolean anyHit = false;
+        long now = clock.millis();
+        for (K key : keys) {
+            CacheEntry<V> entry = store.get(key);
+            if (entry != null && entry.isExpired(now)) {
+                entry = null;
+            }
+            entries.add(entry);
+            anyHit |= entry != null;
+        }
+        if (!anyHit) {
+            return entries;
+        }
+
+        boolean locked = !policy.isConcurrent();
+        if (locked) {
+            lock.lock();
+        }
+        try {
+            for (int i = 0; i < keys.size(); i++) {
+                if (entries.get(i) != null) {
+                    policy.recordHit(keys.get(i));
+                }
+            }
+        } finally {
+            if (locked) {
+                lock.unlock();
+            }
+        }
+        return entries;
+    }
+
+    void setAll(List<K> keys, List<CacheEntry<V>> entries, List<byte[]> records) {
+        lock.lock();
+        try {
+            for (int i = 0; i < keys.size(); i++) {
+                if (records != null) {
+                    appendLog.append(records.get(i));
+                }
+                put(keys.get(i), entries.get(i));
+                trackExpiration(keys.get(i), entries.get(i));
+                updateLRU(keys.get(i));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int delAll(List<K> keys) {
+        lock.lock();
+        try {
+            int removed = 0;
+            for (K key : keys) {
+                if (remove(key) != null) {
+                    logDel(key);
+                    removed++;
+                }
+            }
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    CacheEntry<V> peek(K key) {
+        return store.get(key);
+    }
+
+    boolean del(K key) {
+        lock.lock();
+        try {
+            if (remove(key) == null) {
+                return false;
+            }
+            logDel(key);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 만료 시각이 지난 키를 최대 limit 개까지 삭제한다. expiredKeys 가 null 이 아니면 삭제한 키를 담는다
+    ExpireBatch expire(long now, int limit, List<K> expiredKeys) {
+        lock.lock();
+        try {
+            dueTimers.addAll(expirations.advance(now));
+
+            int examined = 0;
+            int expired = 0;
+            while (examined < limit && !dueTimers.isEmpty()) {
+                TimingWheel.Timer<K> timer = dueTimers.poll();
+                examined++;
+
+                CacheEntry<V> entry = store.get(timer.key());
+                // advance 로 꺼낸 뒤 다시 SET/삭제된 키는 엔트리의 Timer 가 달라져 있다
+                if (entry != null && entry.expirationTimer() == timer && entry.isExpired(now)) {
+                    remove(timer.key());
+                    expired++;
+                    if (expiredKeys != null) {
+                        expiredKeys.add(timer.key());
+                    }
+                }
+            }
+            this.expiredKeys += expired;
+            return new ExpireBatch(examined, expired, !dueTimers.isEmpty());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void lock() {
+        lock.lock();
+    }
+
+    void unlock() {
+        lock.unlock();
+    }
+
+    // 호출 전 lock() 필요. 이 시점 이전에 들어온 엔트리가 epoch 의 snapshot 대상이 된다
+    void beginCut(int epoch) {
+        this.epoch = epoch;
+        this.cut = new SnapshotCut<>(epoch);
+    }
+
+    // 살아 있는 map 을 lock 없이 순회하며 cut 시점의 엔트리를 LRU 순서대로 내보낸다.
+    // lock 은 키 순서를 복사할 때와 마지막에 pre-image 를 넘겨받을 때만 잡는다.
+    void dumpTo(int epoch, long now, SnapshotSink<K, V> sink) throws IOException {
+        List<K> keys;
+        lock.lock();
+        try {
+            keys = policy.getKeysInAccessOrder();
+        } finally {
+            lock.unlock();
+        }
+
+        for (K key : keys) {
+            CacheEntry<V> entry = store.get(key);
+            // 없거나 cut 이후에 들어온 엔트리면, cut 시점의 엔트리는 pre-image 로 남아 있다
+            if (entry == null || entry.snapshotEpoch() >= epoch) {
+                continue;
+            }
+            // 값을 먼저 읽고 claim 한다: claim 에 성공하면 덮어쓰는 쪽은 pre-image 를 남기지 않고 release 만 한다
+            V value = entry.getValue();
+            if (entry.claimForSnapshot(epoch) && !entry.isExpired(now)) {
+                sink.accept(key, value, entry.getExpireAt());
+            }
+        }
+
+        // lock 을 잡으면 claim 후 아직 pre-image 를 넣지 못한 writer 가 없다
+        List<Map.Entry<K, CacheEntry<V>>> preImages;
+        lock.lock();
+        try {
+            preImages = cut != null ? cut.preImages : List.of();
+            cut = null;
+        } finally {
+            lock.unlock();
+        }
+        for (Map.Entry<K, CacheEntry<V>> preImage : preImages) {
+            CacheEntry<V> entry = preImage.getValue();
+            if (!entry.isExpired(now)) {
+                sink.accept(preImage.getKey(), entry.getValue(), entry.getExpireAt());
+            }
+        }
+    }
+
+    // 실패 등으로 dump 를 끝내지 못했을 때 pre-image 보관을 멈춘다
+    void endCut() {
+        lock.lock();
+        try {
+            cut = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 호출 전 lock() 필요
+    void copyTo(Map<K, CacheEntry<V>> data, List<K> keys) {
+        if (slabs == null) {
+            data.putAll(store);
+        } else {
+            // lock 을 푼 뒤 chunk 가 재사용되어도 괜찮도록 heap 으로 복사해 둔다
+            store.forEach((key, entry) -> data.put(key, entry.onHeap()));
+        }
+        keys.addAll(policy.getKeysInAccessOrder());
+    }
+
+    void restore(Map<K, CacheEntry<V>> restoredStore, List<K> restoredLruKeys) {
+        lock.lock();
+        try {
+            store.values().forEach(CacheEntry::release);
+            store.clear();
+            expirations.clear();
+            dueTimers.clear();
+            long used = 0;
+            for (Map.Entry<K, CacheEntry<V>> e : restoredStore.entrySet()) {
+                CacheEntry<V> entry = e.getValue();
+                if (slabs != null) {
+                    entry = OffHeapCacheEntry.store(slabs, entry.getValue(), entry.getExpireAt());
+                }
+                entry.memorySize(MemoryEstimator.estimate(e.getKey(), entry));
+                entry.snapshotEpoch(epoch);
+                used += entry.memorySize();
+                store.put(e.getKey(), entry);
+                trackExpiration(e.getKey(), entry);
+            }
+            usedMemory = used;
+            policy.restoreOrder(restoredLruKeys);
+            // 더 작은 maxmemory 로 재시작한 경우
+            evictForMemory();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    Map<K, CacheEntry<V>> entries() {
+        return store;
+    }
+
+    long usedMemory() {
+        return usedMemory;
+    }
+
+    long evictedKeys() {
+        return evictedKeys;
+    }
+
+    long expiredKeys() {
+        return expiredKeys;
+    }
+
+    void appendLog(AppendOnlyLog<K, V> appendLog) {
+        this.appendLog = appendLog;
+    }
+
+    long offHeapBytes() {
+        return slabs != null ? slabs.allocatedBytes() : 0;
+    }
+
+    private void logDel(K key) {
+        AppendOnlyLog<K, V> log = appendLog;
+        if (log != null) {
+            log.append(log.encodeDel(key));
+        }
+    }
+
+    private void put(K key, CacheEntry<V> entry) {
+        entry.snapshotEpoch(epoch);
+        CacheEntry<V> old = store.put(key, entry);
+        usedMemory += entry.memorySize();
+        if (old != null) {
+            usedMemory -= old.memorySize();
+            untrackExpiration(old);
+            retire(key, old);
+        }
+    }
+
+    private CacheEntry<V> remove(K key) {
+        policy.remove(key);
+        CacheEntry<V> old = store.remove(key);
+        if (old != null) {
+            usedMemory -= old.memorySize();
+            untrackExpiration(old);
+            retire(key, old);
+        }
+        return old;
+    }
+
+    // 진행 중인 snapshot 이 아직 기록하지 않은 엔트리면 pre-image 로 남긴 뒤 놓아준다 (copy-on-write)
+    private void retire(K key, CacheEntry<V> old) {
+        if (cut != null && old.snapshotEpoch() < cut.epoch && old.claimForSnapshot(cut.epoch)) {
+            cut.preImages.add(new AbstractMap.SimpleImmutableEntry<>(key, old.onHeap()));
+        }
+        old.release();
+    }
+
+    private static final class SnapshotCut<K, V> {
+        private final int epoch;
+        private final List<Map.Entry<K, CacheEntry<V>>> preImages = new ArrayList<>();
+
+        private SnapshotCut(int epoch) {
+            this.epoch = epoch;
+        }
+    }
+
+    // 키마다 Timer 는 하나뿐이다. 덮어쓰기/삭제/eviction 때 untrackExpiration 으로 바로 떼어낸다
+    private void trackExpiration(K key, CacheEntry<V> entry) {
+        if (entry.hasTtl()) {
+            entry.expirationTimer(expirations.add(key, entry.getExpireAt()));
+        }
+    }
+
+    private void untrackExpiration(CacheEntry<V> entry) {
+        TimingWheel.Timer<?> timer = entry.expirationTimer();
+        if (timer != null) {
+            expirations.cancel(timer);
+            entry.expirationTimer(null);
+        }
+    }
+
+    int pendingExpirations() {
+        lock.lock();
+        try {
+            return expirations.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //LRU 처리
+    private void updateLRU(K key) {
+        policy.recordAccess(key);
+        K evict = policy.findEvictionTarget();
+
+        if (evict != null) {
+            evict(evict);
+        }
+        evictForMemory();
+    }
+
+    // 바이트 한도를 넘은 동안 정책이 고른 희생자를 계속 내보낸다
+    private void evictForMemory() {
+        while (maxMemory > 0 && usedMemory > maxMemory) {
+            K victim = policy.selectVictim();
+            if (victim == null) {
+                return;
+            }
+            evict(victim);
+        }
+    }
+
+    private void evict(K key) {
+        remove(key);
+        evictedKeys++;
+        // lock 안이므로 키마다 출력하지 않고 세기만 한다. 1초마다 한 줄로 남는다
+        EVICTIONS.increment();
+    }
+}
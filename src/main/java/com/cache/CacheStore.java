@@ -1,23 +1,62 @@
 package com.cache;
 
 import com.cache.dto.SnapshotData;
+import com.common.Clock;
+import com.common.Log;
 
+import java.io.IOException;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
 public class CacheStore<K, V> implements Serializable {
 
-    private final Map<K, CacheEntry<V>> store = new ConcurrentHashMap<>();
-    private final LRUCache<K> lru;
-    private final transient ReentrantLock lruLock = new ReentrantLock();
+    private final CacheSegment<K, V>[] segments;
+    private final Clock clock;
+    private final long maxMemory;
+    private final AtomicBoolean snapshotting = new AtomicBoolean();
+    private int snapshotEpoch; // snapshotting 을 잡은 스레드만 바꾼다
+    private volatile AppendOnlyLog<K, V> appendLog;
+    // warm start 중에만 존재한다. 키에 접근하기 전에 그 segment 가 올라왔는지 확인한다
+    private volatile ParallelSnapshotLoader<K, V> loader;
+    // 마지막 snapshot 이후 바뀐 키 수. 쓰기마다 더하므로 contention 이 적은 LongAdder 를 쓴다
+    private final LongAdder changesSinceSave = new LongAdder();
+    // get/getAll 에서 키를 찾았는지 (INFO stats 의 keyspace_hits/misses)
+    private final LongAdder keyspaceHits = new LongAdder();
+    private final LongAdder keyspaceMisses = new LongAdder();
+
+    public CacheStore() {
+        this(CacheConfig.defaultConfig());
+    }
 
     public CacheStore(int capacity) {
-        this.lru = new LRUCache<>(capacity);
+        this(CacheConfig.builder().capacity(capacity).build());
+    }
+
+    public CacheStore(int capacity, int shards) {
+        this(CacheConfig.builder().capacity(capacity).shards(shards).build());
+    }
+
+    @SuppressWarnings("unchecked")
+    public CacheStore(CacheConfig config) {
+        int shards = config.shards();
+        this.clock = config.clock();
+        this.maxMemory = config.maxMemory();
+        long segmentMaxMemory = maxMemory > 0 ? Math.max(1, maxMemory / shards) : 0;
+        this.segments = (CacheSegment<K, V>[]) new CacheSegment<?, ?>[shards];
+
+        // 전체 용량을 shard 수로 나누고, 나머지는 앞쪽 shard 에 1씩 분배
+        int base = config.capacity() / shards;
+        int remainder = config.capacity() % shards;
+        for (int i = 0; i < shards; i++) {
+            segments[i] = new CacheSegment<>(base + (i < remainder ? 1 : 0), segmentMaxMemory,
+                    config.evictionPolicy(), config.storage(), clock);
+        }
     }
 
     // no TTL
@@ -26,32 +65,169 @@ public class CacheStore<K, V> implements Serializable {
     }
 
     public void set(K key, V value, long ttl) {
-        store.put(key, new CacheEntry<>(value, ttl));
-
-        updateLRU(key);
+        AppendOnlyLog<K, V> log = appendLog;
+        checkWritable(log);
+        CacheSegment<K, V> segment = segmentFor(key);
+        CacheEntry<V> entry = segment.createEntry(key, value, ttl, clock.millis());
+        segment.set(key, entry, log != null ? log.encodeSet(key, value, entry.getExpireAt()) : null);
+        changesSinceSave.increment();
+        if (log != null) {
+            log.awaitDurable();
+        }
     }
 
     public V get(K key) {
-        CacheEntry<V> entry = store.get(key);
+        CacheSegment<K, V> segment = segmentFor(key);
+        while (true) {
+            CacheEntry<V> entry = segment.get(key);
+            if (entry == null) {
+                keyspaceMisses.increment();
+                return null;
+            }
+            V value = entry.getValue();
+            // off-heap 값을 읽는 도중 덮어쓰기/삭제로 해제되었다면 현재 엔트리로 다시 읽는다
+            if (value != null || !entry.isReleased()) {
+                keyspaceHits.increment();
+                return value;
+            }
+        }
+    }
 
-        if (checkExpired(key, entry)) {
-            return null;
+    public boolean del(K key) {
+        checkWritable(appendLog);
+        boolean removed = segmentFor(key).del(key);
+        if (removed) {
+            changesSinceSave.increment();
         }
+        awaitDurable(removed);
+        return removed;
+    }
 
-        updateLRU(key);
-        return entry.getValue();
+    // 키를 shard 별로 묶어 shard 마다 lock 을 한 번만 잡는다
+    public List<V> getAll(List<K> keys) {
+        List<V> values = new ArrayList<>(Collections.nCopies(keys.size(), null));
+        List<List<Integer>> groups = groupBySegment(keys);
+        awaitLoaded(groups);
+        for (int s = 0; s < segments.length; s++) {
+            List<Integer> indexes = groups.get(s);
+            if (indexes == null) {
+                continue;
+            }
+            List<CacheEntry<V>> entries = segments[s].getAll(pick(keys, indexes));
+            for (int i = 0; i < indexes.size(); i++) {
+                CacheEntry<V> entry = entries.get(i);
+                V value = entry != null ? entry.getValue() : null;
+                if (value == null && entry != null && entry.isReleased()) {
+                    // get 이 hit/miss 를 센다
+                    value = get(keys.get(indexes.get(i)));
+                } else if (value != null) {
+                    keyspaceHits.increment();
+                } else {
+                    keyspaceMisses.increment();
+                }
+                values.set(indexes.get(i), value);
+            }
+        }
+        return values;
     }
 
-    public boolean del(K key) {
-        store.remove(key);
+    public void setAll(Map<K, V> values) {
+        setAll(values, -1);
+    }
 
-        lruLock.lock();
+    // 같은 TTL 을 공유한다. 순서가 중요하면 LinkedHashMap 을 넘긴다
+    public void setAll(Map<K, V> values, long ttl) {
+        checkWritable(appendLog);
+        List<K> keys = new ArrayList<>(values.keySet());
+        List<List<Integer>> groups = groupBySegment(keys);
+        awaitLoaded(groups);
+        // 한도를 넘는 값이 하나라도 있으면 아무것도 쓰지 않도록 엔트리를 먼저 만든다
+        List<List<CacheEntry<V>>> batches = new ArrayList<>(Collections.nCopies(segments.length, null));
+        long now = clock.millis();
         try {
-            lru.remove(key);
-        } finally {
-            lruLock.unlock();
+            for (int s = 0; s < segments.length; s++) {
+                List<Integer> indexes = groups.get(s);
+                if (indexes == null) {
+                    continue;
+                }
+                List<CacheEntry<V>> entries = new ArrayList<>(indexes.size());
+                batches.set(s, entries);
+                for (int index : indexes) {
+                    K key = keys.get(index);
+                    entries.add(segments[s].createEntry(key, values.get(key), ttl, now));
+                }
+            }
+        } catch (RuntimeException e) {
+            // 이미 할당한 off-heap chunk 를 돌려준다
+            for (List<CacheEntry<V>> entries : batches) {
+                if (entries != null) {
+                    entries.forEach(CacheEntry::release);
+                }
+            }
+            throw e;
+        }
+        AppendOnlyLog<K, V> log = appendLog;
+        for (int s = 0; s < segments.length; s++) {
+            List<CacheEntry<V>> entries = batches.get(s);
+            if (entries == null) {
+                continue;
+            }
+            List<K> batch = pick(keys, groups.get(s));
+            List<byte[]> records = null;
+            if (log != null) {
+                records = new ArrayList<>(batch.size());
+                for (int i = 0; i < batch.size(); i++) {
+                    records.add(log.encodeSet(batch.get(i), values.get(batch.get(i)), entries.get(i).getExpireAt()));
+                }
+            }
+            segments[s].setAll(batch, entries, records);
         }
-        return true;
+        changesSinceSave.add(keys.size());
+        awaitDurable(true);
+    }
+
+    public long delAll(List<K> keys) {
+        checkWritable(appendLog);
+        long removed = 0;
+        List<List<Integer>> groups = groupBySegment(keys);
+        awaitLoaded(groups);
+        for (int s = 0; s < segments.length; s++) {
+            List<Integer> indexes = groups.get(s);
+            if (indexes != null) {
+                removed += segments[s].delAll(pick(keys, indexes));
+            }
+        }
+        changesSinceSave.add(removed);
+        awaitDurable(removed > 0);
+        return removed;
+    }
+
+    // replay 가 끝난 뒤 붙인다. 이후 SET/DEL 이 로그에 남는다
+    public void setAppendLog(AppendOnlyLog<K, V> log) {
+        this.appendLog = log;
+        for (CacheSegment<K, V> segment : segments) {
+            segment.appendLog(log);
+        }
+    }
+
+    public AppendOnlyLog<K, V> appendLog() {
+        return appendLog;
+    }
+
+    // 로그 replay 용: 절대 만료 시각으로 저장하고, 이미 지났으면 키를 지운다
+    // warm start 와 겹치면 그 segment 가 올라올 때까지 제한 없이 기다린다
+    void restoreEntry(K key, V value, long expireAt, long now) {
+        int index = segmentIndex(key);
+        ParallelSnapshotLoader<K, V> current = loader;
+        if (current != null) {
+            current.await(index, Long.MAX_VALUE);
+        }
+        CacheSegment<K, V> segment = segments[index];
+        if (expireAt != -1 && expireAt <= now) {
+            segment.del(key);
+            return;
+        }
+        segment.set(key, segment.createEntryAt(key, value, expireAt), null);
     }
 
     public boolean exists(K key) {
@@ -59,61 +235,299 @@ public class CacheStore<K, V> implements Serializable {
     }
 
     public long ttl(K key) {
-        CacheEntry<V> entry = store.get(key);
+        CacheEntry<V> entry = segmentFor(key).peek(key);
+        long now = clock.millis();
 
-        if (checkExpired(key, entry)) {
+        if (checkExpired(entry, now)) {
             return -1;
         }
 
-        return entry.getRemainingTTL();
+        return entry.getRemainingTTL(now);
+    }
+
+    // 키/값/엔트리 오버헤드를 합친 추정 바이트 수. 없거나 만료된 키는 -1
+    public long memoryUsage(K key) {
+        CacheEntry<V> entry = segmentFor(key).peek(key);
+        if (checkExpired(entry, clock.millis())) {
+            return -1;
+        }
+        return entry.memorySize();
+    }
+
+    public long usedMemory() {
+        long used = 0;
+        for (CacheSegment<K, V> segment : segments) {
+            used += segment.usedMemory();
+        }
+        return used;
+    }
+
+    public long maxMemory() {
+        return maxMemory;
+    }
+
+    public long evictedKeys() {
+        long evicted = 0;
+        for (CacheSegment<K, V> segment : segments) {
+            evicted += segment.evictedKeys();
+        }
+        return evicted;
+    }
+
+    // TTL 이 지나 active expire 로 삭제된 키 수
+    public long expiredKeys() {
+        long expired = 0;
+        for (CacheSegment<K, V> segment : segments) {
+            expired += segment.expiredKeys();
+        }
+        return expired;
+    }
+
+    public long keyspaceHits() {
+        return keyspaceHits.sum();
+    }
+
+    public long keyspaceMisses() {
+        return keyspaceMisses.sum();
+    }
+
+    // slab page 와 전용 buffer 로 잡아 둔 direct memory 총량 (HEAP 이면 0)
+    public long offHeapBytes() {
+        long bytes = 0;
+        for (CacheSegment<K, V> segment : segments) {
+            bytes += segment.offHeapBytes();
+        }
+        return bytes;
+    }
+
+    public int size() {
+        int size = 0;
+        for (CacheSegment<K, V> segment : segments) {
+            size += segment.entries().size();
+        }
+        return size;
+    }
+
+    // TTL 이 지난 키를 모두 삭제하고 삭제된 키 목록을 반환한다
+    public List<K> expireDue() {
+        long now = clock.millis();
+        List<K> expired = new ArrayList<>();
+        for (CacheSegment<K, V> segment : segments) {
+            segment.expire(now, Integer.MAX_VALUE, expired);
+        }
+        return expired;
+    }
+
+    // TTLManager 의 시간 제한 cycle 용: 한 segment 에서 최대 limit 개만 처리한다
+    ExpireBatch expireBatch(int segment, long now, int limit) {
+        return segments[segment].expire(now, limit, null);
+    }
+
+    public long changesSinceSave() {
+        return changesSinceSave.sum();
+    }
+
+    // 저장을 시작할 때 읽어 둔 값만큼 뺀다. 저장하는 동안 들어온 쓰기는 다음 저장 몫으로 남는다
+    void markSaved(long changes) {
+        changesSinceSave.add(-changes);
+    }
+
+    public boolean isLoading() {
+        return loader != null;
+    }
+
+    public LoadingStatus loadingStatus() {
+        ParallelSnapshotLoader<K, V> current = loader;
+        return current != null ? current.status() : LoadingStatus.IDLE;
+    }
+
+    void attachLoader(ParallelSnapshotLoader<K, V> loader) {
+        this.loader = loader;
+    }
+
+    void detachLoader(ParallelSnapshotLoader<K, V> loader) {
+        if (this.loader == loader) {
+            this.loader = null;
+        }
+    }
+
+    public Clock clock() {
+        return clock;
+    }
+
+    public int shardCount() {
+        return segments.length;
     }
 
     public Map<K, CacheEntry<V>> entries() {
-        return Map.copyOf(store);
+        Map<K, CacheEntry<V>> merged = new HashMap<>();
+        for (CacheSegment<K, V> segment : segments) {
+            merged.putAll(segment.entries());
+        }
+        return Map.copyOf(merged);
     }
 
     public void restoreFromSnapshot(Map<K, CacheEntry<V>> restoredStore, List<K> restoredLruKeys) {
-        this.store.clear();
-        this.store.putAll(restoredStore);
+        List<Map<K, CacheEntry<V>>> storeParts = new ArrayList<>(segments.length);
+        List<List<K>> keyParts = new ArrayList<>(segments.length);
+        for (int i = 0; i < segments.length; i++) {
+            storeParts.add(new HashMap<>());
+            keyParts.add(new ArrayList<>());
+        }
 
-        this.lru.restoreOrder(restoredLruKeys);
+        restoredStore.forEach((key, entry) -> storeParts.get(segmentIndex(key)).put(key, entry));
+        // shard 별 상대적인 접근 순서는 그대로 유지된다
+        for (K key : restoredLruKeys) {
+            keyParts.get(segmentIndex(key)).add(key);
+        }
 
-        System.out.println("[Snapshot] CacheStore restored successfully. Keys: " + this.store.size());
+        int restored = 0;
+        for (int i = 0; i < segments.length; i++) {
+            segments[i].restore(storeParts.get(i), keyParts.get(i));
+            restored += storeParts.get(i).size();
+        }
+
+        Log.info("[Snapshot] CacheStore restored successfully. Keys: " + restored);
+    }
+
+    // 병렬 loader 용: segment 별로 나눠진 엔트리를 그 segment 에만 복원한다
+    void restoreSegment(int index, Map<K, CacheEntry<V>> restoredStore, List<K> restoredLruKeys) {
+        segments[index].restore(restoredStore, restoredLruKeys);
     }
 
     public SnapshotData<K, V> getSnapshotData() {
-        lruLock.lock();
+        for (CacheSegment<K, V> segment : segments) {
+            segment.lock();
+        }
+        try {
+            Map<K, CacheEntry<V>> data = new HashMap<>();
+            List<K> keys = new ArrayList<>();
+            for (CacheSegment<K, V> segment : segments) {
+                segment.copyTo(data, keys);
+            }
+            return new SnapshotData<>(Map.copyOf(data), keys);
+        } finally {
+            for (int i = segments.length - 1; i >= 0; i--) {
+                segments[i].unlock();
+            }
+        }
+    }
+
+    // 모든 segment 에 같은 epoch 의 cut 을 건다. lock 은 segment 수만큼 잠깐 잡을 뿐 복사는 하지 않는다.
+    // 이후 dumpSegment 로 segment 마다 한 번씩 내보내고, 끝나면(실패해도) endSnapshot 을 호출한다
+    int beginSnapshot() {
+        // 덜 올라온 상태를 저장하면 기존 snapshot 을 잃는다
+        if (loader != null) {
+            throw new IllegalStateException("dataset is still loading");
+        }
+        if (!snapshotting.compareAndSet(false, true)) {
+            throw new IllegalStateException("snapshot already in progress");
+        }
+        for (CacheSegment<K, V> segment : segments) {
+            segment.lock();
+        }
         try {
-            Map<K, CacheEntry<V>> data = Map.copyOf(store);
-            List<K> keys = lru.getKeysInAccessOrder();
-            return new SnapshotData<>(data, keys);
+            int epoch = ++snapshotEpoch;
+            for (CacheSegment<K, V> segment : segments) {
+                segment.beginCut(epoch);
+            }
+            return epoch;
         } finally {
-            lruLock.unlock();
+            for (int i = segments.length - 1; i >= 0; i--) {
+                segments[i].unlock();
+            }
+        }
+    }
+
+    void dumpSegment(int index, int epoch, long now, SnapshotSink<K, V> sink) throws IOException {
+        segments[index].dumpTo(epoch, now, sink);
+    }
+
+    void endSnapshot() {
+        for (CacheSegment<K, V> segment : segments) {
+            segment.endCut();
         }
+        snapshotting.set(false);
     }
 
-    private boolean checkExpired(K key, CacheEntry<V> entry) {
-        if (entry == null || entry.isExpired()) {
+    private static void checkWritable(AppendOnlyLog<?, ?> log) {
+        if (log != null) {
+            log.checkWritable();
+        }
+    }
+
+    private void awaitDurable(boolean wrote) {
+        AppendOnlyLog<K, V> log = appendLog;
+        if (wrote && log != null) {
+            log.awaitDurable();
+        }
+    }
+
+    private boolean checkExpired(CacheEntry<V> entry, long now) {
+        if (entry == null || entry.isExpired(now)) {
             return true;
         }
         return false;
     }
 
     public Map<K, CacheEntry<V>> dumpAll() {
-        return Collections.unmodifiableMap(new HashMap<>(store));
-    //LRU 처리
-    private void updateLRU(K key) {
-        lruLock.lock();
-        try {
-            lru.recordAccess(key);
-            K evict = lru.findEvictionTarget();
+        Map<K, CacheEntry<V>> merged = new HashMap<>();
+        for (CacheSegment<K, V> segment : segments) {
+            merged.putAll(segment.entries());
+        }
+        return Collections.unmodifiableMap(merged);
+    }
 
-            if (evict != null) {
-                del(evict);
-                System.out.println("[LRU] evicted key: " + evict);
+    private List<List<Integer>> groupBySegment(List<K> keys) {
+        List<List<Integer>> groups = new ArrayList<>(Collections.nCopies(segments.length, null));
+        for (int i = 0; i < keys.size(); i++) {
+            int s = segmentIndex(keys.get(i));
+            if (groups.get(s) == null) {
+                groups.set(s, new ArrayList<>());
             }
-        } finally {
-            lruLock.unlock();
+            groups.get(s).add(i);
+        }
+        return groups;
+    }
+
+    private static <T> List<T> pick(List<T> items, List<Integer> indexes) {
+        if (indexes.size() == items.size()) {
+            return items;
+        }
+        List<T> picked = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            picked.add(items.get(index));
+        }
+        return picked;
+    }
+
+    private CacheSegment<K, V> segmentFor(K key) {
+        int index = segmentIndex(key);
+        ParallelSnapshotLoader<K, V> current = loader;
+        if (current != null) {
+            current.await(index);
+        }
+        return segments[index];
+    }
+
+    private void awaitLoaded(List<List<Integer>> groups) {
+        ParallelSnapshotLoader<K, V> current = loader;
+        if (current == null) {
+            return;
+        }
+        for (int s = 0; s < groups.size(); s++) {
+            if (groups.get(s) != null) {
+                current.await(s);
+            }
+        }
+    }
+
+    int segmentIndex(K key) {
+        if (segments.length == 1) {
+            return 0;
         }
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return (h & 0x7fffffff) % segments.length;
     }
 }
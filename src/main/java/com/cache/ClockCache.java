@@ -0,0 +1,122 @@
+package com.cache;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// CLOCK (second chance) 기반 근사 LRU.
+// 조회 시에는 reference bit 만 세우므로 lock 이 필요 없고,
+// 추가/삭제/eviction 은 segment lock 안에서만 ring 을 변경한다.
+public class ClockCache<K> implements EvictionPolicy<K>, Serializable {
+    private final int capacity;
+    private final Map<K, Node<K>> nodes = new ConcurrentHashMap<>();
+    private final ArrayList<Node<K>> ring;
+    private int hand;
+
+    public ClockCache(int capacity) {
+        this.capacity = capacity;
+        this.ring = new ArrayList<>(capacity + 1);
+    }
+
+    @Override
+    public void recordAccess(K key) {
+        Node<K> node = nodes.get(key);
+        if (node != null) {
+            node.referenced = true;
+            return;
+        }
+        node = new Node<>(key, ring.size());
+        ring.add(node);
+        nodes.put(key, node);
+    }
+
+    @Override
+    public void recordHit(K key) {
+        Node<K> node = nodes.get(key);
+        // 이미 세워진 bit 는 다시 쓰지 않아 hot key 의 cache line 을 더럽히지 않는다
+        if (node != null && !node.referenced) {
+            node.referenced = true;
+        }
+    }
+
+    @Override
+    public K findEvictionTarget() {
+        if (ring.size() <= capacity) return null;
+        return selectVictim();
+    }
+
+    @Override
+    public K selectVictim() {
+        if (ring.isEmpty()) return null;
+
+        // 모든 bit 가 세워져 있어도 한 바퀴 돌면 초기화되므로 두 바퀴 안에 끝난다
+        int limit = ring.size() * 2 + 1;
+        for (int i = 0; i < limit; i++) {
+            if (hand >= ring.size()) {
+                hand = 0;
+            }
+            Node<K> node = ring.get(hand);
+            if (!node.referenced) {
+                return node.key;
+            }
+            node.referenced = false;
+            hand++;
+        }
+        return ring.get(hand % ring.size()).key;
+    }
+
+    @Override
+    public void remove(K key) {
+        Node<K> node = nodes.remove(key);
+        if (node == null) return;
+
+        // 마지막 노드를 빈 자리로 옮겨 O(1) 삭제
+        Node<K> last = ring.remove(ring.size() - 1);
+        if (last != node) {
+            ring.set(node.index, last);
+            last.index = node.index;
+        }
+    }
+
+    @Override
+    public List<K> getKeysInAccessOrder() {
+        // hand 위치부터 reference bit 가 없는 키를 먼저, 있는 키를 나중에 둔다
+        List<K> cold = new ArrayList<>();
+        List<K> hot = new ArrayList<>();
+        int size = ring.size();
+        for (int i = 0; i < size; i++) {
+            Node<K> node = ring.get((hand + i) % size);
+            (node.referenced ? hot : cold).add(node.key);
+        }
+        cold.addAll(hot);
+        return cold;
+    }
+
+    @Override
+    public void restoreOrder(List<K> keys) {
+        nodes.clear();
+        ring.clear();
+        hand = 0;
+        for (K key : keys) {
+            recordAccess(key);
+        }
+    }
+
+    @Override
+    public boolean isConcurrent() {
+        return true;
+    }
+
+    private static final class Node<K> implements Serializable {
+        private final K key;
+        private volatile boolean referenced;
+        private int index;
+
+        private Node(K key, int index) {
+            this.key = key;
+            this.index = index;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// 첫 바이트가 타입 tag, 나머지가 본문
+final class DefaultValueCodec implements ValueCodec<Object> {
+    static final DefaultValueCodec INSTANCE = new DefaultValueCodec();
+
+    private static final byte NULL = 0;
+    private static final byte LATIN1 = 1;
+    private static final byte UTF8 = 2;
+    private static final byte BYTES = 3;
+    private static final byte SERIALIZED = 4;
+
+    private DefaultValueCodec() {
+    }
+
+    @Override
+    public byte[] encode(Object value) {
+        if (value == null) {
+            return new byte[]{NULL};
+        }
+        if (value instanceof String s) {
+            // 서버가 받는 값은 ISO-8859-1 로 디코딩되므로 대부분 1바이트/문자로 저장된다
+            boolean latin1 = isLatin1(s);
+            return tagged(latin1 ? LATIN1 : UTF8,
+                    s.getBytes(latin1 ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8));
+        }
+        if (value instanceof byte[] bytes) {
+            return tagged(BYTES, bytes);
+        }
+        return tagged(SERIALIZED, serialize(value));
+    }
+
+    @Override
+    public Object decode(byte[] bytes) {
+        return switch (bytes[0]) {
+            case NULL -> null;
+            case LATIN1 -> new String(bytes, 1, bytes.length - 1, StandardCharsets.ISO_8859_1);
+            case UTF8 -> new String(bytes, 1, bytes.length - 1, StandardCharsets.UTF_8);
+            case BYTES -> Arrays.copyOfRange(bytes, 1, bytes.length);
+            case SERIALIZED -> deserialize(bytes);
+            default -> throw new IllegalArgumentException("unknown value tag: " + bytes[0]);
+        };
+    }
+
+    private static boolean isLatin1(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] tagged(byte tag, byte[] body) {
+        byte[] bytes = new byte[body.length + 1];
+        bytes[0] = tag;
+        System.arraycopy(body, 0, bytes, 1, body.length);
+        return bytes;
+    }
+
+    private static byte[] serialize(Object value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(out)) {
+            oos.writeObject(value);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("value is not serializable: " + value.getClass().getName(), e);
+        }
+        return out.toByteArray();
+    }
+
+    private static Object deserialize(byte[] bytes) {
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes, 1, bytes.length - 1))) {
+            return ois.readObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.cache;
+
+import java.util.List;
+
+public interface EvictionPolicy<K> {
+
+    // SET 경로: 새 키를 추가하거나 기존 키를 갱신 (segment lock 안에서 호출)
+    void recordAccess(K key);
+
+    // GET 경로: 이미 존재하는 키의 조회 기록. 없는 키는 추가하지 않는다
+    default void recordHit(K key) {
+        recordAccess(key);
+    }
+
+    K findEvictionTarget();
+
+    // 키 수와 상관없이 다음 희생자를 고른다 (maxmemory 초과 시). 비어 있으면 null
+    K selectVictim();
+
+    void remove(K key);
+
+    List<K> getKeysInAccessOrder();
+
+    void restoreOrder(List<K> keys);
+
+    // true 면 recordHit 을 segment lock 없이 호출해도 안전하다
+    default boolean isConcurrent() {
+        return false;
+    }
+}
@@ -0,0 +1,24 @@
+package com.cache;
+
+public enum EvictionPolicyType {
+    LRU {
+        @Override
+        public <K> EvictionPolicy<K> create(int capacity) {
+            return new LRUCache<>(capacity);
+        }
+    },
+    CLOCK {
+        @Override
+        public <K> EvictionPolicy<K> create(int capacity) {
+            return new ClockCache<>(capacity);
+        }
+    },
+    TINYLFU {
+        @Override
+        public <K> EvictionPolicy<K> create(int capacity) {
+            return new TinyLfuCache<>(capacity);
+        }
+    };
+
+    public abstract <K> EvictionPolicy<K> create(int capacity);
+}
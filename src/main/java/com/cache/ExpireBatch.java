@@ -0,0 +1,5 @@
+package com.cache;
+
+// 한 segment 에서 한 번에 처리한 만료 결과. hasMore 면 아직 꺼내지 않은 만료 후보가 남아 있다
+record ExpireBatch(int examined, int expired, boolean hasMore) {
+}
@@ -0,0 +1,10 @@
+package com.cache;
+
+public enum FsyncPolicy {
+    // 쓰기 명령은 자신이 들어간 batch 가 fsync 된 뒤에 응답한다 (group commit)
+    ALWAYS,
+    // 1초에 한 번 fsync. 장애 시 최대 1초 분량을 잃을 수 있다
+    EVERYSEC,
+    // fsync 하지 않고 OS 에 맡긴다
+    NO
+}
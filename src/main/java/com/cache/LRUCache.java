@@ -5,7 +5,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.stream.Collectors;
 
-public class LRUCache<K> implements Serializable {
+public class LRUCache<K> implements EvictionPolicy<K>, Serializable {
     private final int capacity;
     private final LinkedHashMap<K, Boolean> orderMap;
 
@@ -16,23 +16,40 @@ public class LRUCache<K> implements Serializable {
                 true); // 75% 초과 시 재해싱
     }
 
+    @Override
     public void recordAccess(K key) {
         orderMap.put(key, Boolean.TRUE);
     }
 
+    @Override
+    public void recordHit(K key) {
+        // access order 인 LinkedHashMap 은 get 만으로 순서가 갱신되고, 없는 키는 추가되지 않는다
+        orderMap.get(key);
+    }
+
+    @Override
     public K findEvictionTarget() {
         if (orderMap.size() <= capacity) return null;
-        return orderMap.entrySet().iterator().next().getKey();
+        return selectVictim();
+    }
+
+    @Override
+    public K selectVictim() {
+        if (orderMap.isEmpty()) return null;
+        return orderMap.keySet().iterator().next();
     }
 
+    @Override
     public void remove(K key) {
         orderMap.remove(key);
     }
 
+    @Override
     public List<K> getKeysInAccessOrder() {
         return orderMap.keySet().stream().collect(Collectors.toList());
     }
 
+    @Override
     public void restoreOrder(List<K> keys) {
         orderMap.clear();
         for (K key : keys) {
@@ -0,0 +1,6 @@
+package com.cache;
+
+// warm start 진행 상황. chunk 는 저장할 때와 shard 수가 같으면 segment 하나, 다르면 파일 전체다
+public record LoadingStatus(boolean loading, int chunks, int chunksLoaded, long loadedKeys, long onDemandLoads) {
+    static final LoadingStatus IDLE = new LoadingStatus(false, 0, 0, 0, 0);
+}
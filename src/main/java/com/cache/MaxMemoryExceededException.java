@@ -0,0 +1,8 @@
+package com.cache;
+
+// 엔트리 하나가 shard 의 maxmemory 보다 커서 eviction 으로도 넣을 수 없을 때
+public class MaxMemoryExceededException extends RuntimeException {
+    public MaxMemoryExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,52 @@
+package com.cache;
+
+// 64bit JVM + compressed oops 기준의 대략적인 크기 추정 (정확한 측정이 아니라 상한 관리용)
+final class MemoryEstimator {
+    // ConcurrentHashMap.Node(32) + CacheEntry(48) + eviction policy 노드(LinkedHashMap.Entry 40 + table slot 8)
+    static final long ENTRY_OVERHEAD = 32 + 48 + 48;
+    // TimingWheel.Timer (key, expireAt, 칸/앞/뒤 링크)
+    static final long TTL_OVERHEAD = 40;
+
+    private static final long OBJECT_HEADER = 16;
+    private static final long STRING_HEADER = 24;
+    private static final long ARRAY_HEADER = 16;
+
+    private MemoryEstimator() {
+    }
+
+    static long estimate(Object key, CacheEntry<?> entry) {
+        long size = ENTRY_OVERHEAD + sizeOf(key) + entry.valueMemorySize();
+        if (entry.hasTtl()) {
+            size += TTL_OVERHEAD;
+        }
+        return size;
+    }
+
+    static long sizeOf(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof String s) {
+            return STRING_HEADER + align(ARRAY_HEADER + (long) s.length() * bytesPerChar(s));
+        }
+        if (value instanceof byte[] bytes) {
+            return align(ARRAY_HEADER + bytes.length);
+        }
+        // 알 수 없는 타입은 빈 객체 하나로 본다
+        return OBJECT_HEADER;
+    }
+
+    // compact string: 모든 문자가 Latin-1 이면 1바이트, 아니면 UTF-16 2바이트
+    private static int bytesPerChar(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > 0xFF) {
+                return 2;
+            }
+        }
+        return 1;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+}
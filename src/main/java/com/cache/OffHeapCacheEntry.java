@@ -0,0 +1,72 @@
+package com.cache;
+
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+
+// 값 바이트는 slab chunk 에 있고, heap 에는 page 참조와 handle 만 남는다.
+// 조회는 lock 없이 일어나므로 seqlock 처럼 복사 후 released 를 다시 확인한다:
+// 그 사이 chunk 가 해제되어 다른 값으로 덮였을 수 있기 때문이다.
+final class OffHeapCacheEntry<T> extends CacheEntry<T> {
+    // page 참조, allocator 참조, handle, length, released 만큼 CacheEntry 보다 크다
+    private static final long HEAP_OVERHEAD = 24;
+
+    private final transient SlabAllocator slabs;
+    private final transient ByteBuffer page;
+    private final long handle;
+    private final int length;
+    private volatile boolean released;
+
+    private OffHeapCacheEntry(SlabAllocator slabs, long handle, int length, long expireAt) {
+        super(null, expireAt, 0);
+        this.slabs = slabs;
+        this.page = slabs.page(handle);
+        this.handle = handle;
+        this.length = length;
+    }
+
+    static <T> OffHeapCacheEntry<T> store(SlabAllocator slabs, T value, long expireAt) {
+        byte[] bytes = ValueCodec.<T>auto().encode(value);
+        long handle = slabs.allocate(bytes.length);
+        slabs.write(handle, bytes);
+        return new OffHeapCacheEntry<>(slabs, handle, bytes.length, expireAt);
+    }
+
+    @Override
+    public T getValue() {
+        byte[] bytes = new byte[length];
+        page.get(SlabAllocator.offsetOf(handle), bytes, 0, length);
+        // 복사한 바이트보다 released 를 먼저 읽지 않도록 막는다 (StampedLock.validate 와 같은 방식)
+        VarHandle.acquireFence();
+        if (released) {
+            return null;
+        }
+        return ValueCodec.<T>auto().decode(bytes);
+    }
+
+    @Override
+    long valueMemorySize() {
+        return HEAP_OVERHEAD + slabs.chunkSize(handle);
+    }
+
+    @Override
+    void release() {
+        if (!released) {
+            released = true;
+            slabs.free(handle);
+        }
+    }
+
+    @Override
+    boolean isReleased() {
+        return released;
+    }
+
+    @Override
+    CacheEntry<T> onHeap() {
+        return CacheEntry.expiringAt(getValue(), getExpireAt());
+    }
+
+    private Object writeReplace() {
+        return onHeap();
+    }
+}
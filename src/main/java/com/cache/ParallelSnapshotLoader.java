@@ -0,0 +1,331 @@
+package com.cache;
+
+import com.common.Log;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// 바이너리 snapshot 을 mmap 해서 block 단위로 나눠 병렬로 복원한다.
+//
+// 1) block header 만 따라가며 위치를 모은다 (payload 는 건드리지 않는다)
+// 2) block 들을 chunk 로 묶는다. 저장할 때와 shard 수가 같으면 chunk = segment 이고,
+//    다르면 어느 block 이든 모든 segment 에 섞여 들어가므로 파일 전체가 chunk 하나다
+// 3) chunk 마다 crc 검사 + 디코딩 + segment restore 를 ForkJoinPool 에서 병렬로 돌린다
+//
+// block 안의 순서가 원래 segment 의 LRU 순서이므로 파일 순서대로 합치면 접근 순서가 유지된다.
+//
+// warm start 에서는 store 에 붙어 아직 안 올라온 segment 에 대한 요청을 막는다. chunk = segment 이면
+// 요청 스레드가 그 chunk 를 직접 claim 해서 올리고, 이미 다른 스레드가 올리는 중이면 잠깐 기다린다.
+final class ParallelSnapshotLoader<K, V> {
+    // MappedByteBuffer 하나는 int 범위까지라 큰 파일은 block 경계에서 여러 구간으로 나눠 map 한다
+    private static final long MAX_REGION_BYTES = 1L << 30;
+
+    private static final int PENDING = 0;
+    private static final int LOADING = 1;
+    private static final int READY = 2;
+
+    private final CacheStore<K, V> store;
+    private final ValueCodec<K> keyCodec;
+    private final ValueCodec<V> valueCodec;
+    private final int parallelism;
+
+    private List<BinarySnapshot.Block> blocks;
+    private List<ByteBuffer> views;
+    private List<List<Integer>> chunks;
+    private boolean perSegment;
+    private long now;
+    private AtomicIntegerArray states;
+    private ForkJoinPool pool;
+    private long waitMillis;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition chunkReady = lock.newCondition();
+    private final AtomicLong loadedKeys = new AtomicLong();
+    private final AtomicLong onDemandLoads = new AtomicLong();
+    private volatile SnapshotFormatException failure;
+
+    ParallelSnapshotLoader(CacheStore<K, V> store, ValueCodec<K> keyCodec, ValueCodec<V> valueCodec, int parallelism) {
+        this.store = store;
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        this.parallelism = parallelism;
+    }
+
+    // 전부 올라올 때까지 기다린다. 중간에 깨진 block 이 있으면 store 를 비우고 실패한다
+    Result load(Path path, long now) throws IOException {
+        open(path, now);
+        Result result = run().join();
+        if (failure != null) {
+            for (int s = 0; s < store.shardCount(); s++) {
+                store.restoreSegment(s, Map.of(), List.of());
+            }
+            throw failure;
+        }
+        return result;
+    }
+
+    // header/index 까지만 확인하고 나머지는 백그라운드로 올린다. 그동안 store 는 요청마다 await 를 거친다.
+    // 이미 요청이 처리된 뒤라 깨진 block 은 그 chunk 만 빈 채로 두고 결과를 실패로 끝낸다
+    CompletableFuture<Result> loadInBackground(Path path, long now, long waitMillis) throws IOException {
+        open(path, now);
+        this.waitMillis = waitMillis;
+        store.attachLoader(this);
+        return run().whenComplete((result, e) -> store.detachLoader(this))
+                .thenApply(result -> {
+                    if (failure != null) {
+                        throw new UncheckedIOException(failure);
+                    }
+                    return result;
+                });
+    }
+
+    void await(int segment) {
+        await(segment, waitMillis);
+    }
+
+    // segment 가 올라올 때까지 최대 timeoutMillis 기다린다. 아직 아무도 올리지 않았으면 직접 올린다
+    void await(int segment, long timeoutMillis) {
+        int chunk = perSegment ? segment : 0;
+        if (states.get(chunk) == READY) {
+            return;
+        }
+        if (perSegment && states.compareAndSet(chunk, PENDING, LOADING)) {
+            onDemandLoads.incrementAndGet();
+            loadChunk(chunk);
+            return;
+        }
+        long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        lock.lock();
+        try {
+            while (states.get(chunk) != READY) {
+                if (remaining <= 0) {
+                    throw new CacheLoadingException("dataset is still loading from snapshot");
+                }
+                try {
+                    remaining = chunkReady.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CacheLoadingException("interrupted while waiting for snapshot load");
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    LoadingStatus status() {
+        int ready = 0;
+        for (int c = 0; c < states.length(); c++) {
+            if (states.get(c) == READY) {
+                ready++;
+            }
+        }
+        return new LoadingStatus(ready < states.length(), states.length(), ready, loadedKeys.get(),
+                onDemandLoads.get());
+    }
+
+    record Result(long keys, long expired, int blocks, long onDemandLoads) {
+    }
+
+    private void open(Path path, long now) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            BinarySnapshot.Index index = BinarySnapshot.index(channel);
+            // channel 을 닫아도 map 한 구간은 그대로 읽을 수 있다
+            blocks = index.blocks();
+            views = map(channel, blocks);
+            perSegment = index.segments() == store.shardCount();
+        }
+        this.now = now;
+
+        chunks = new ArrayList<>();
+        int chunkCount = perSegment ? store.shardCount() : 1;
+        for (int c = 0; c < chunkCount; c++) {
+            chunks.add(new ArrayList<>());
+        }
+        for (int i = 0; i < blocks.size(); i++) {
+            chunks.get(perSegment ? blocks.get(i).segment() : 0).add(i);
+        }
+        states = new AtomicIntegerArray(chunkCount);
+        // loadInBackground 는 run() 전에 store 에 loader 를 붙이므로, 요청 스레드의 decodeAll 이 쓸 pool 을 여기서 만든다
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    private CompletableFuture<Result> run() {
+        CompletableFuture<?>[] tasks = new CompletableFuture<?>[chunks.size()];
+        for (int c = 0; c < chunks.size(); c++) {
+            int chunk = c;
+            tasks[c] = CompletableFuture.runAsync(() -> {
+                // 요청 스레드가 먼저 올리고 있으면 그쪽에 맡긴다
+                if (states.compareAndSet(chunk, PENDING, LOADING)) {
+                    loadChunk(chunk);
+                }
+            }, pool);
+        }
+        return CompletableFuture.allOf(tasks).thenApply(ignored -> {
+            // 요청 스레드가 올리던 chunk 도 끝날 때까지 기다린다
+            for (int c = 0; c < chunks.size(); c++) {
+                await(c, Long.MAX_VALUE);
+            }
+            pool.shutdown();
+            views = null;
+            long read = blocks.stream().mapToLong(BinarySnapshot.Block::count).sum();
+            return new Result(loadedKeys.get(), read - loadedKeys.get(), blocks.size(), onDemandLoads.get());
+        });
+    }
+
+    // 호출한 스레드가 chunk 를 LOADING 으로 claim 한 상태여야 한다
+    private void loadChunk(int chunk) {
+        try {
+            if (perSegment) {
+                loadedKeys.addAndGet(restoreSegment(chunk, decodeAll(chunks.get(chunk))));
+            } else {
+                List<Decoded<K, V>> decoded = decodeAll(chunks.get(chunk));
+                List<ForkJoinTask<Integer>> restoring = new ArrayList<>(store.shardCount());
+                for (int s = 0; s < store.shardCount(); s++) {
+                    int segment = s;
+                    restoring.add(ForkJoinTask.adapt(() -> restoreSegment(segment, decoded)));
+                }
+                for (ForkJoinTask<Integer> task : ForkJoinTask.invokeAll(restoring)) {
+                    loadedKeys.addAndGet(task.join());
+                }
+            }
+        } catch (UncheckedIOException e) {
+            failure = (SnapshotFormatException) e.getCause();
+            Log.error("[snapshot] load error in chunk " + chunk + ": " + failure.getMessage());
+        } finally {
+            lock.lock();
+            try {
+                states.set(chunk, READY);
+                chunkReady.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // block 들을 pool 에 나눠 디코딩한다. 요청 스레드가 on-demand 로 올릴 때도 디코딩은 pool 이 돕는다
+    private List<Decoded<K, V>> decodeAll(List<Integer> indexes) {
+        List<ForkJoinTask<Decoded<K, V>>> decoding = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            decoding.add(ForkJoinTask.adapt(() -> decode(index)));
+        }
+        if (ForkJoinTask.inForkJoinPool()) {
+            ForkJoinTask.invokeAll(decoding);
+        } else {
+            decoding.forEach(pool::execute);
+        }
+        List<Decoded<K, V>> decoded = new ArrayList<>(indexes.size());
+        for (ForkJoinTask<Decoded<K, V>> task : decoding) {
+            decoded.add(task.join());
+        }
+        return decoded;
+    }
+
+    // 연속한 block 들을 MAX_REGION_BYTES 이하의 구간으로 묶어 한 번씩만 map 하고 block 마다 slice 를 준다
+    private static List<ByteBuffer> map(FileChannel channel, List<BinarySnapshot.Block> blocks) throws IOException {
+        List<ByteBuffer> views = new ArrayList<>(blocks.size());
+        int first = 0;
+        while (first < blocks.size()) {
+            long start = blocks.get(first).offset();
+            int last = first;
+            while (last + 1 < blocks.size()
+                    && blocks.get(last + 1).offset() + blocks.get(last + 1).size() - start <= MAX_REGION_BYTES) {
+                last++;
+            }
+            BinarySnapshot.Block tail = blocks.get(last);
+            MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                    tail.offset() + tail.size() - start);
+            for (int i = first; i <= last; i++) {
+                BinarySnapshot.Block block = blocks.get(i);
+                views.add(region.slice((int) (block.offset() - start), (int) block.size()));
+            }
+            first = last + 1;
+        }
+        return views;
+    }
+
+    private Decoded<K, V> decode(int index) {
+        Decoded<K, V> decoded = new Decoded<>(store.shardCount());
+        try {
+            BinarySnapshot.readBlock(views.get(index), blocks.get(index), keyCodec, valueCodec, now,
+                    (key, entry) -> decoded.add(store.segmentIndex(key), key, entry));
+        } catch (SnapshotFormatException e) {
+            throw new UncheckedIOException(e);
+        }
+        return decoded;
+    }
+
+    private int restoreSegment(int segment, List<Decoded<K, V>> decoded) {
+        int size = 0;
+        for (Decoded<K, V> block : decoded) {
+            size += block.size(segment);
+        }
+        Map<K, CacheEntry<V>> entries = new HashMap<>(Math.max(16, (int) (size / 0.75f) + 1));
+        List<K> lruKeys = new ArrayList<>(size);
+        for (Decoded<K, V> block : decoded) {
+            block.drainTo(segment, entries, lruKeys);
+        }
+        store.restoreSegment(segment, entries, lruKeys);
+        return entries.size();
+    }
+
+    // block 하나를 디코딩한 결과를 segment 별로 나눠 둔다. 대부분의 block 은 한 segment 로만 간다
+    private static final class Decoded<K, V> {
+        private final List<List<K>> keys;
+        private final List<List<CacheEntry<V>>> entries;
+
+        private Decoded(int shards) {
+            keys = new ArrayList<>(shards);
+            entries = new ArrayList<>(shards);
+            for (int s = 0; s < shards; s++) {
+                keys.add(null);
+                entries.add(null);
+            }
+        }
+
+        private void add(int segment, K key, CacheEntry<V> entry) {
+            if (keys.get(segment) == null) {
+                keys.set(segment, new ArrayList<>());
+                entries.set(segment, new ArrayList<>());
+            }
+            keys.get(segment).add(key);
+            entries.get(segment).add(entry);
+        }
+
+        private int size(int segment) {
+            List<K> part = keys.get(segment);
+            return part != null ? part.size() : 0;
+        }
+
+        private void drainTo(int segment, Map<K, CacheEntry<V>> target, List<K> lruKeys) {
+            List<K> partKeys = keys.get(segment);
+            if (partKeys == null) {
+                return;
+            }
+            List<CacheEntry<V>> partEntries = entries.get(segment);
+            for (int i = 0; i < partKeys.size(); i++) {
+                target.put(partKeys.get(i), partEntries.get(i));
+            }
+            lruKeys.addAll(partKeys);
+            keys.set(segment, null);
+            entries.set(segment, null);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.cache;
+
+// 마지막 저장 후 seconds 초가 지났고 그동안 changes 개 이상 바뀌었으면 저장한다 (Redis 의 save <seconds> <changes>)
+public record SaveRule(long seconds, long changes) {
+    public SaveRule {
+        if (seconds <= 0 || changes <= 0) {
+            throw new IllegalArgumentException("save rule needs positive seconds and changes");
+        }
+    }
+}
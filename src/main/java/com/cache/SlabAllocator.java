@@ -0,0 +1,186 @@
+package com.cache;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+// memcached 식 slab allocator: 1MB direct page 를 크기 class(64B ~ 1MB, 2배씩) 별 chunk 로 잘라 쓴다.
+// 해제된 chunk 는 class 의 free list 로 돌아가 재사용되고, page 자체는 반환하지 않는다.
+// page 보다 큰 값은 전용 direct buffer 를 따로 할당한다.
+//
+// handle = [class 8bit][page 24bit][offset 32bit]
+// virtual thread 의 carrier 를 pin 하지 않도록 synchronized 대신 ReentrantLock 을 쓴다.
+final class SlabAllocator {
+    static final int PAGE_SIZE = 1 << 20;
+    private static final int MIN_CHUNK_SHIFT = 6;
+    private static final int CLASS_COUNT = 20 - MIN_CHUNK_SHIFT + 1;
+    private static final int LARGE = CLASS_COUNT;
+
+    private final SizeClass[] classes = new SizeClass[CLASS_COUNT];
+    private final List<ByteBuffer> large = new ArrayList<>();
+    private final List<Integer> freeLargeSlots = new ArrayList<>();
+    private long allocatedBytes;
+    private long usedBytes;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    SlabAllocator() {
+        for (int i = 0; i < CLASS_COUNT; i++) {
+            classes[i] = new SizeClass(1 << (i + MIN_CHUNK_SHIFT));
+        }
+    }
+
+    long allocate(int length) {
+        lock.lock();
+        try {
+            if (length > PAGE_SIZE) {
+                return allocateLarge(length);
+            }
+            int classIndex = classIndex(length);
+            long handle = classes[classIndex].allocate(classIndex);
+            usedBytes += classes[classIndex].chunkSize;
+            return handle;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void free(long handle) {
+        lock.lock();
+        try {
+            int classIndex = classOf(handle);
+            if (classIndex == LARGE) {
+                int slot = pageOf(handle);
+                usedBytes -= large.get(slot).capacity();
+                allocatedBytes -= large.get(slot).capacity();
+                // 전용 buffer 는 참조를 끊어 GC(Cleaner) 가 direct memory 를 돌려주게 한다
+                large.set(slot, null);
+                freeLargeSlots.add(slot);
+                return;
+            }
+            classes[classIndex].free(handle);
+            usedBytes -= classes[classIndex].chunkSize;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // page 는 여러 스레드가 공유하므로 position 을 바꾸지 않는 절대 위치 get/put 만 쓴다
+    ByteBuffer page(long handle) {
+        lock.lock();
+        try {
+            int classIndex = classOf(handle);
+            return classIndex == LARGE ? large.get(pageOf(handle)) : classes[classIndex].pages.get(pageOf(handle));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void write(long handle, byte[] bytes) {
+        page(handle).put(offsetOf(handle), bytes, 0, bytes.length);
+    }
+
+    int chunkSize(long handle) {
+        int classIndex = classOf(handle);
+        if (classIndex != LARGE) {
+            return classes[classIndex].chunkSize;
+        }
+        lock.lock();
+        try {
+            return large.get(pageOf(handle)).capacity();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long allocatedBytes() {
+        lock.lock();
+        try {
+            return allocatedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long usedBytes() {
+        lock.lock();
+        try {
+            return usedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    static int offsetOf(long handle) {
+        return (int) handle;
+    }
+
+    private long allocateLarge(int length) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(length);
+        int slot;
+        if (freeLargeSlots.isEmpty()) {
+            slot = large.size();
+            large.add(buffer);
+        } else {
+            slot = freeLargeSlots.remove(freeLargeSlots.size() - 1);
+            large.set(slot, buffer);
+        }
+        allocatedBytes += length;
+        usedBytes += length;
+        return handle(LARGE, slot, 0);
+    }
+
+    private static int classIndex(int length) {
+        int size = Math.max(length, 1 << MIN_CHUNK_SHIFT);
+        // length 이상인 가장 작은 2의 거듭제곱
+        int shift = 32 - Integer.numberOfLeadingZeros(size - 1);
+        return shift - MIN_CHUNK_SHIFT;
+    }
+
+    private static long handle(int classIndex, int page, int offset) {
+        return ((long) classIndex << 56) | ((long) page << 32) | (offset & 0xffffffffL);
+    }
+
+    private static int classOf(long handle) {
+        return (int) (handle >>> 56);
+    }
+
+    private static int pageOf(long handle) {
+        return (int) (handle >>> 32) & 0xffffff;
+    }
+
+    private final class SizeClass {
+        private final int chunkSize;
+        private final List<ByteBuffer> pages = new ArrayList<>();
+        private long[] freeList = new long[16];
+        private int freeCount;
+        // 마지막 page 에서 아직 잘라 쓰지 않은 위치
+        private int bumpOffset = PAGE_SIZE;
+
+        private SizeClass(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        private long allocate(int classIndex) {
+            if (freeCount > 0) {
+                return freeList[--freeCount];
+            }
+            if (bumpOffset + chunkSize > PAGE_SIZE) {
+                pages.add(ByteBuffer.allocateDirect(PAGE_SIZE));
+                allocatedBytes += PAGE_SIZE;
+                bumpOffset = 0;
+            }
+            long handle = handle(classIndex, pages.size() - 1, bumpOffset);
+            bumpOffset += chunkSize;
+            return handle;
+        }
+
+        private void free(long handle) {
+            if (freeCount == freeList.length) {
+                freeList = Arrays.copyOf(freeList, freeCount * 2);
+            }
+            freeList[freeCount++] = handle;
+        }
+    }
+}
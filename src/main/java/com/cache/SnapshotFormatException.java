@@ -0,0 +1,14 @@
+package com.cache;
+
+import java.io.IOException;
+
+// snapshot 파일이 잘렸거나 checksum 이 맞지 않을 때
+public class SnapshotFormatException extends IOException {
+    public SnapshotFormatException(String message) {
+        super(message);
+    }
+
+    public SnapshotFormatException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,64 +1,207 @@
 package com.cache;
 
 import com.cache.dto.SnapshotData;
+import com.common.Log;
 
 import java.io.*;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class SnapshotManager<K, V> {
     private final CacheStore<K, V> store;
     private final String snapshotFilePath;
+    private final ValueCodec<K> keyCodec = ValueCodec.auto();
+    private final ValueCodec<V> valueCodec = ValueCodec.auto();
+    private final AtomicBoolean saving = new AtomicBoolean();
+    private final int loadThreads;
+    // store 의 clock 기준. 시작 시각부터 잰다
+    private volatile long lastSaveMillis;
+    private volatile long lastAttemptMillis;
+    private volatile boolean lastSaveSucceeded = true;
 
     public SnapshotManager(CacheStore<K, V> store) {
         this(store, "cache_snapshot.dat");
     }
 
     public SnapshotManager(CacheStore<K, V> store, String snapshotFilePath) {
+        this(store, snapshotFilePath, Runtime.getRuntime().availableProcessors());
+    }
+
+    // loadThreads: 바이너리 snapshot 을 복원할 때 block 디코딩과 segment 복원에 쓰는 스레드 수
+    public SnapshotManager(CacheStore<K, V> store, String snapshotFilePath, int loadThreads) {
         this.store = store;
         this.snapshotFilePath = snapshotFilePath;
+        this.loadThreads = loadThreads;
+        this.lastSaveMillis = store.clock().millis();
     }
 
-    public void saveSnapshot() {
+    // 저장에 성공하면 true
+    public boolean saveSnapshot() {
+        if (!saving.compareAndSet(false, true)) {
+            Log.warn("[snapshot] save error: snapshot already in progress");
+            return false;
+        }
         try {
-            SnapshotData<K, V> snapshot = store.getSnapshotData();
+            write();
+            return true;
+        } catch (IOException | RuntimeException e) {
+            Log.error("[snapshot] save error: " + e.getMessage());
+            return false;
+        } finally {
+            saving.set(false);
+        }
+    }
 
-            try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(snapshotFilePath))) {
-                oos.writeObject(snapshot);
-                System.out.println("[snapshot] saved (" + snapshot.storeData.size() + " keys)");
+    // 별도 스레드에서 살아 있는 store 를 순회하며 저장한다. 조회/쓰기는 멈추지 않는다.
+    // 결과는 저장한 키 수이고, 이미 저장 중이면 IllegalStateException 으로 실패한다
+    public CompletableFuture<Long> saveSnapshotInBackground() {
+        if (!saving.compareAndSet(false, true)) {
+            return CompletableFuture.failedFuture(new IllegalStateException("snapshot already in progress"));
+        }
+        CompletableFuture<Long> result = new CompletableFuture<>();
+        Thread writer = new Thread(() -> {
+            // 결과를 받은 쪽이 바로 다시 저장할 수 있도록 flag 를 먼저 내린다
+            try {
+                long keys = write();
+                saving.set(false);
+                result.complete(keys);
+            } catch (IOException | RuntimeException e) {
+                saving.set(false);
+                Log.error("[snapshot] background save error: " + e.getMessage());
+                result.completeExceptionally(e);
             }
+        }, "snapshot-writer");
+        writer.setDaemon(true);
+        writer.start();
+        return result;
+    }
 
-        } catch (IOException e) {
-            System.err.println("[snapshot] save error: " + e.getMessage());
-        }
+    public boolean isSaving() {
+        return saving.get();
+    }
+
+    public long lastSaveMillis() {
+        return lastSaveMillis;
+    }
+
+    public long lastAttemptMillis() {
+        return lastAttemptMillis;
+    }
+
+    public boolean lastSaveSucceeded() {
+        return lastSaveSucceeded;
     }
 
     public void loadSnapshot() {
         File file = new File(snapshotFilePath);
         if (!file.exists()) {
-            System.out.println("[snapshot] no file, empty cache");
+            Log.info("[snapshot] no file, empty cache");
             return;
         }
 
-        try (FileInputStream fis = new FileInputStream(snapshotFilePath);
-             ObjectInputStream ois = new ObjectInputStream(fis)) {
+        long started = System.nanoTime();
+        try {
+            if (BinarySnapshot.hasMagic(path())) {
+                ParallelSnapshotLoader.Result result = new ParallelSnapshotLoader<>(store, keyCodec, valueCodec,
+                        loadThreads).load(path(), store.clock().millis());
+                Log.info("[snapshot] loaded %d keys (%d expired skipped, %d blocks, %d threads) in %d ms",
+                        result.keys(), result.expired(), result.blocks(), loadThreads,
+                        (System.nanoTime() - started) / 1_000_000);
+            } else {
+                SnapshotData<K, V> snapshot = readLegacy();
+                store.restoreFromSnapshot(snapshot.storeData, snapshot.lruKeys);
+                Log.info("[snapshot] loaded legacy snapshot in %d ms",
+                        (System.nanoTime() - started) / 1_000_000);
+            }
 
-            @SuppressWarnings("unchecked")
-            SnapshotData<K, V> snapshot = (SnapshotData<K, V>) ois.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            Log.error("[snapshot] load error: " + e.getMessage());
+            renameCorrupted();
+        }
+    }
 
-            store.restoreFromSnapshot(snapshot.storeData, snapshot.lruKeys);
-            System.out.println("[snapshot] loaded");
+    // warm start: header 와 block 위치만 확인하고 바로 반환한다. 나머지는 백그라운드로 올리며,
+    // 그동안 아직 안 올라온 segment 의 키를 찾는 요청은 그 segment 를 직접 올리거나 최대 waitMillis 기다린다.
+    // 결과는 올린 키 수. 바이너리 형식이 아니면 기존처럼 다 읽고 나서 반환한다
+    public CompletableFuture<Long> loadSnapshotInBackground(long waitMillis) {
+        try {
+            if (!new File(snapshotFilePath).exists() || !BinarySnapshot.hasMagic(path())) {
+                loadSnapshot();
+                return CompletableFuture.completedFuture((long) store.size());
+            }
+        } catch (IOException e) {
+            loadSnapshot();
+            return CompletableFuture.completedFuture((long) store.size());
+        }
 
-        } catch (IOException | ClassNotFoundException e) {
-            System.err.println("[snapshot] load error: " + e.getMessage());
-
-            File corruptedFile = new File(snapshotFilePath);
-            if (corruptedFile.exists()) {
-                String renamed = snapshotFilePath + ".corrupted." + System.currentTimeMillis();
-                if (corruptedFile.renameTo(new File(renamed))) {
-                    System.err.println("[snapshot] renamed corrupted file -> " + renamed);
-                } else {
-                    System.err.println("[snapshot] failed to rename corrupted file");
-                }
+        long started = System.nanoTime();
+        try {
+            return new ParallelSnapshotLoader<>(store, keyCodec, valueCodec, loadThreads)
+                    .loadInBackground(path(), store.clock().millis(), waitMillis)
+                    .handle((result, e) -> {
+                        if (e != null) {
+                            Throwable cause = e.getCause() != null ? e.getCause() : e;
+                            Log.error("[snapshot] background load error: " + cause.getMessage());
+                            renameCorrupted();
+                            throw new CompletionException(e);
+                        }
+                        Log.info("[snapshot] warm start finished: %d keys (%d expired skipped, "
+                                        + "%d chunks loaded on demand) in %d ms", result.keys(), result.expired(),
+                                result.onDemandLoads(), (System.nanoTime() - started) / 1_000_000);
+                        return result.keys();
+                    });
+        } catch (IOException e) {
+            Log.error("[snapshot] load error: " + e.getMessage());
+            renameCorrupted();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void renameCorrupted() {
+        File corruptedFile = new File(snapshotFilePath);
+        if (corruptedFile.exists()) {
+            String renamed = snapshotFilePath + ".corrupted." + System.currentTimeMillis();
+            if (corruptedFile.renameTo(new File(renamed))) {
+                Log.warn("[snapshot] renamed corrupted file -> " + renamed);
+            } else {
+                Log.warn("[snapshot] failed to rename corrupted file");
             }
         }
     }
+
+    private long write() throws IOException {
+        long started = System.nanoTime();
+        long changes = store.changesSinceSave();
+        lastAttemptMillis = store.clock().millis();
+        long keys;
+        try {
+            keys = BinarySnapshot.write(store, path(), keyCodec, valueCodec);
+        } catch (IOException | RuntimeException e) {
+            lastSaveSucceeded = false;
+            throw e;
+        }
+        store.markSaved(changes);
+        lastSaveMillis = store.clock().millis();
+        lastSaveSucceeded = true;
+        Log.info("[snapshot] saved (%d keys, %d ms)", keys, (System.nanoTime() - started) / 1_000_000);
+        return keys;
+    }
+
+    // 바이너리 형식 이전에 ObjectOutputStream 으로 저장된 파일
+    private SnapshotData<K, V> readLegacy() throws IOException, ClassNotFoundException {
+        try (FileInputStream fis = new FileInputStream(snapshotFilePath);
+             ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(fis))) {
+
+            @SuppressWarnings("unchecked")
+            SnapshotData<K, V> snapshot = (SnapshotData<K, V>) ois.readObject();
+            return snapshot;
+        }
+    }
+
+    private Path path() {
+        return Paths.get(snapshotFilePath);
+    }
 }
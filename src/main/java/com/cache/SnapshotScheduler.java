@@ -0,0 +1,61 @@
+package com.cache;
+
+import com.common.Log;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// 고정 주기로 저장하지 않고, 마지막 저장 이후 바뀐 키 수(dirty)와 경과 시간을 save 규칙에 맞춰 본다.
+// 확인 자체는 LongAdder 합계와 시각 비교뿐이라 자주 돌려도 부담이 없다.
+public class SnapshotScheduler {
+    private static final long CHECK_PERIOD_MILLIS = 100;
+    // 저장이 실패하면 디스크가 찰 때처럼 계속 실패하기 쉬우므로 잠깐 쉬었다가 다시 시도한다
+    private static final long RETRY_DELAY_MILLIS = 5_000;
+
+    private final SnapshotManager<?, ?> snapshotManager;
+    private final CacheStore<?, ?> store;
+    private final List<SaveRule> rules;
+    private final ScheduledExecutorService scheduler;
+
+    public SnapshotScheduler(SnapshotManager<?, ?> snapshotManager, CacheStore<?, ?> store, List<SaveRule> rules) {
+        this.snapshotManager = snapshotManager;
+        this.store = store;
+        this.rules = List.copyOf(rules);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::check, CHECK_PERIOD_MILLIS, CHECK_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    // 규칙 하나라도 만족하면 백그라운드 저장을 시작하고 true 를 반환한다
+    boolean check() {
+        if (snapshotManager.isSaving() || store.isLoading()) {
+            return false;
+        }
+        long now = store.clock().millis();
+        if (!snapshotManager.lastSaveSucceeded() && now - snapshotManager.lastAttemptMillis() < RETRY_DELAY_MILLIS) {
+            return false;
+        }
+        long changes = store.changesSinceSave();
+        long elapsed = now - snapshotManager.lastSaveMillis();
+        for (SaveRule rule : rules) {
+            if (changes >= rule.changes() && elapsed >= TimeUnit.SECONDS.toMillis(rule.seconds())) {
+                Log.info("[snapshot] %d changes in %d seconds, saving", changes, rule.seconds());
+                snapshotManager.saveSnapshotInBackground();
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,9 @@
+package com.cache;
+
+import java.io.IOException;
+
+// snapshot dump 가 엔트리를 하나씩 넘겨주는 대상
+@FunctionalInterface
+interface SnapshotSink<K, V> {
+    void accept(K key, V value, long expireAt) throws IOException;
+}
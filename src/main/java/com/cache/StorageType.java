@@ -0,0 +1,8 @@
+package com.cache;
+
+public enum StorageType {
+    // 값을 CacheEntry 안에 객체로 보관
+    HEAP,
+    // 값을 직렬화해 slab 으로 나눈 direct memory 에 보관하고, heap 에는 handle 만 둔다
+    OFFHEAP
+}
@@ -1,44 +1,131 @@
 package com.cache;
 
+import com.common.Log;
+
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
-
+// Redis 의 active expire cycle 과 비슷하게 동작한다.
+// 한 cycle 은 정해진 시간(budget)만 쓰고 멈추며, 만료가 밀려 있으면 곧바로 다시 돌고
+// 만료되는 키가 없으면 period 까지 간격을 늘린다.
 public class TTLManager {
+    private static final int KEYS_PER_LOOP = 20;
+    private static final long MIN_DELAY_MILLIS = 1;
+    private static final int DEFAULT_BUDGET_PERCENT = 25;
+    private static final Log.Counter EXPIRATIONS = Log.counter("[TTL] expired", "keys");
 
     private final CacheStore<String, ?> store;
     private final ScheduledExecutorService scheduler;
     private final long period;
+    private final long budgetNanos;
+
+    private final LongAdder expiredKeys = new LongAdder();
+    private final LongAdder cycles = new LongAdder();
+    private final LongAdder timedOutCycles = new LongAdder();
+    private final LongAdder timeSpentNanos = new LongAdder();
+
+    // scheduler 스레드에서만 접근
+    private long delay;
+    private int nextSegment;
 
     public TTLManager(CacheStore<String, ?> store, long periodMillis) {
+        this(store, periodMillis, TimeUnit.MILLISECONDS.toMicros(periodMillis) * DEFAULT_BUDGET_PERCENT / 100);
+    }
+
+    public TTLManager(CacheStore<String, ?> store, long periodMillis, long budgetMicros) {
         this.store = store;
         this.period = periodMillis;
+        this.budgetNanos = TimeUnit.MICROSECONDS.toNanos(budgetMicros);
+        this.delay = periodMillis;
         this.scheduler = Executors.newSingleThreadScheduledExecutor();
     }
 
     public void start() {
-        scheduler.scheduleAtFixedRate(this::cleanExpired,
-                period, period, TimeUnit.MILLISECONDS);
+        scheduler.schedule(this::cycle, period, TimeUnit.MILLISECONDS);
     }
 
     public void stop() {
         scheduler.shutdownNow();
     }
 
-    private void cleanExpired() {
+    public long getExpiredKeys() {
+        return expiredKeys.sum();
+    }
+
+    public long getCycles() {
+        return cycles.sum();
+    }
+
+    public long getTimedOutCycles() {
+        return timedOutCycles.sum();
+    }
+
+    public long getTimeSpentMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(timeSpentNanos.sum());
+    }
+
+    long currentDelayMillis() {
+        return delay;
+    }
+
+    private void cycle() {
         try {
-            for (var entry : store.entries().entrySet()) {
-                String key = entry.getKey();
-                CacheEntry<?> cacheEntry = entry.getValue();
+            CycleResult result = runCycle();
 
-                if (cacheEntry.isExpired()) {
-                    store.del(key);
-                    System.out.println("[TTL] expired: " + key);
-                }
+            if (result.timedOut()) {
+                delay = MIN_DELAY_MILLIS;
+            } else if (result.expired() > 0) {
+                delay = Math.max(MIN_DELAY_MILLIS, delay / 2);
+            } else {
+                delay = Math.min(period, delay * 2);
             }
         } catch (Exception ex) {
-            System.err.println("[TTL] Error: " + ex.getMessage());
+            Log.error("[TTL] Error: " + ex.getMessage());
+        } finally {
+            try {
+                scheduler.schedule(this::cycle, delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException ignored) {
+                // stop() 이후
+            }
         }
     }
+
+    CycleResult runCycle() {
+        long start = System.nanoTime();
+        long deadline = start + budgetNanos;
+        long now = store.clock().millis();
+        int shards = store.shardCount();
+        long expired = 0;
+        boolean timedOut = false;
+
+        // 지난 cycle 이 멈춘 segment 부터 이어서 처리해 뒤쪽 segment 가 밀리지 않게 한다
+        for (int i = 0; i < shards && !timedOut; i++) {
+            int segment = (nextSegment + i) % shards;
+            ExpireBatch batch;
+            do {
+                batch = store.expireBatch(segment, now, KEYS_PER_LOOP);
+                expired += batch.expired();
+                if (System.nanoTime() >= deadline) {
+                    timedOut = batch.hasMore() || i < shards - 1;
+                    nextSegment = batch.hasMore() ? segment : (segment + 1) % shards;
+                    break;
+                }
+            } while (batch.hasMore());
+        }
+
+        cycles.increment();
+        expiredKeys.add(expired);
+        EXPIRATIONS.add(expired);
+        timeSpentNanos.add(System.nanoTime() - start);
+        if (timedOut) {
+            timedOutCycles.increment();
+        }
+        return new CycleResult(expired, timedOut);
+    }
+
+    record CycleResult(long expired, boolean timedOut) {
+    }
 }
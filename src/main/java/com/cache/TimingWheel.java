@@ -0,0 +1,222 @@
+package com.cache;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+// 계층형 timing wheel. 레벨마다 64칸이고, 한 칸의 크기는 아래 레벨 한 바퀴와 같다.
+// 만료 시각이 멀수록 높은 레벨에 두었다가, 시간이 다가오면 아래 레벨로 내려보낸다(cascade).
+// advance() 는 실제로 만료 시각이 지난 항목만 꺼내므로 비용이 키 개수가 아니라 만료량에 비례한다.
+// 칸은 Timer 끼리 잇는 양방향 리스트라서, 덮어쓰기/삭제된 키의 Timer 를 cancel() 로 바로 떼어낼 수 있다.
+// 그래서 wheel 의 크기는 쓰기 횟수가 아니라 TTL 이 있는 키 수만큼만 커진다.
+// 스레드 안전하지 않다. CacheSegment 의 lock 안에서만 사용한다.
+class TimingWheel<K> implements Serializable {
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+
+    private final long tickMillis;
+    private final TimerList<K>[][] slots;
+    private final TimerList<K> overflow = new TimerList<>();
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    TimingWheel(long tickMillis, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.slots = (TimerList<K>[][]) new TimerList<?>[LEVELS][WHEEL_SIZE];
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    // 반환한 Timer 를 엔트리에 두었다가 키가 바뀌거나 빠질 때 cancel() 한다
+    Timer<K> add(K key, long expireAt) {
+        Timer<K> timer = new Timer<>(key, expireAt);
+        place(timer);
+        size++;
+        return timer;
+    }
+
+    // 아직 wheel 에 있으면 떼어낸다. 이미 advance() 로 꺼내진 Timer 면 아무것도 하지 않는다
+    void cancel(Timer<?> timer) {
+        if (unlink(timer)) {
+            size--;
+        }
+    }
+
+    // now 이전 tick 의 항목들을 꺼낸다. 꺼낸 뒤 키가 바뀌었을 수 있으므로 호출 측에서 확인해야 한다.
+    List<Timer<K>> advance(long now) {
+        List<Timer<K>> due = new ArrayList<>();
+        long targetTick = now / tickMillis;
+
+        // 남은 항목이 없으면 빈 칸을 하나씩 돌 필요 없이 바로 건너뛴다
+        while (currentTick < targetTick && size > due.size()) {
+            cascade();
+
+            int index = (int) (currentTick & WHEEL_MASK);
+            TimerList<K> slot = slots[0][index];
+            if (slot != null) {
+                slot.drainTo(due::add);
+            }
+            currentTick++;
+        }
+        currentTick = Math.max(currentTick, targetTick);
+
+        size -= due.size();
+        return due;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // 남아 있는 Timer 를 모두 떼어내므로 나중에 그 Timer 를 cancel() 해도 아무 일도 없다
+    void clear() {
+        for (TimerList<K>[] level : slots) {
+            for (TimerList<K> slot : level) {
+                if (slot != null) {
+                    slot.drainTo(timer -> { });
+                }
+            }
+            Arrays.fill(level, null);
+        }
+        overflow.drainTo(timer -> { });
+        size = 0;
+    }
+
+    // 새 레벨 구간이 시작되는 tick 이면 위 레벨의 칸을 풀어 다시 배치한다
+    private void cascade() {
+        if ((currentTick & ((1L << (WHEEL_BITS * LEVELS)) - 1)) == 0 && !overflow.isEmpty()) {
+            List<Timer<K>> pending = new ArrayList<>();
+            overflow.drainTo(pending::add);
+            pending.forEach(this::place);
+        }
+        for (int level = LEVELS - 1; level >= 1; level--) {
+            long levelMask = (1L << (WHEEL_BITS * level)) - 1;
+            if ((currentTick & levelMask) != 0) {
+                continue;
+            }
+            int index = (int) ((currentTick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+            TimerList<K> slot = slots[level][index];
+            if (slot != null) {
+                // drainTo 는 칸을 먼저 비우므로 떼어내면서 바로 다시 배치해도 된다
+                slot.drainTo(this::place);
+            }
+        }
+    }
+
+    private void place(Timer<K> timer) {
+        long expireTick = timer.expireAt / tickMillis;
+        long delta = expireTick - currentTick;
+
+        // 이미 지난 항목은 현재 칸에 넣어 다음 advance 에서 바로 꺼내지게 한다
+        if (delta < 0) {
+            insert(0, (int) (currentTick & WHEEL_MASK), timer);
+            return;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < (1L << (WHEEL_BITS * (level + 1)))) {
+                int index = (int) ((expireTick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+                insert(level, index, timer);
+                return;
+            }
+        }
+        overflow.add(timer);
+    }
+
+    private void insert(int level, int index, Timer<K> timer) {
+        TimerList<K> slot = slots[level][index];
+        if (slot == null) {
+            slot = new TimerList<>();
+            slots[level][index] = slot;
+        }
+        slot.add(timer);
+    }
+
+    private static <K> boolean unlink(Timer<K> timer) {
+        TimerList<K> list = timer.list;
+        if (list == null) {
+            return false;
+        }
+        list.remove(timer);
+        return true;
+    }
+
+    static final class Timer<K> implements Serializable {
+        private final K key;
+        private final long expireAt;
+        // 들어 있는 칸과 앞뒤 Timer. 칸에서 빠지면 list 가 null 이다
+        private TimerList<K> list;
+        private Timer<K> prev;
+        private Timer<K> next;
+
+        Timer(K key, long expireAt) {
+            this.key = key;
+            this.expireAt = expireAt;
+        }
+
+        K key() {
+            return key;
+        }
+
+        long expireAt() {
+            return expireAt;
+        }
+    }
+
+    // 칸 하나. Timer 자체를 노드로 쓰는 양방향 리스트라 중간 삭제가 O(1) 이다
+    private static final class TimerList<K> implements Serializable {
+        private Timer<K> head;
+        private Timer<K> tail;
+
+        // 넣은 순서대로 꺼내지도록 뒤에 붙인다
+        void add(Timer<K> timer) {
+            timer.list = this;
+            timer.prev = tail;
+            timer.next = null;
+            if (tail != null) {
+                tail.next = timer;
+            } else {
+                head = timer;
+            }
+            tail = timer;
+        }
+
+        void remove(Timer<K> timer) {
+            if (timer.prev != null) {
+                timer.prev.next = timer.next;
+            } else {
+                head = timer.next;
+            }
+            if (timer.next != null) {
+                timer.next.prev = timer.prev;
+            } else {
+                tail = timer.prev;
+            }
+            timer.list = null;
+            timer.prev = null;
+            timer.next = null;
+        }
+
+        boolean isEmpty() {
+            return head == null;
+        }
+
+        // 모두 떼어낸 뒤 하나씩 넘긴다 (sink 가 다른 칸에 다시 넣어도 된다)
+        void drainTo(Consumer<Timer<K>> sink) {
+            Timer<K> timer = head;
+            head = null;
+            tail = null;
+            while (timer != null) {
+                Timer<K> next = timer.next;
+                timer.list = null;
+                timer.prev = null;
+                timer.next = null;
+                sink.accept(timer);
+                timer = next;
+            }
+        }
+    }
+}
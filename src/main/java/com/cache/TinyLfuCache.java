@@ -0,0 +1,136 @@
+package com.cache;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+// W-TinyLFU: 새 키는 작은 window(LRU)에 먼저 들어가고, window 에서 밀려난 후보는
+// main 영역의 희생자보다 빈도(sketch)가 높을 때만 입장한다.
+// main 은 probation / protected 로 나뉜 segmented LRU 이다.
+public class TinyLfuCache<K> implements EvictionPolicy<K>, Serializable {
+    private final int capacity;
+    private final int windowMax;
+    private final int mainMax;
+    private final int protectedMax;
+
+    private final LinkedHashMap<K, Boolean> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Boolean> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Boolean> protectedRegion = new LinkedHashMap<>(16, 0.75f, true);
+    private final FrequencySketch sketch;
+
+    public TinyLfuCache(int capacity) {
+        this.capacity = capacity;
+        this.windowMax = Math.max(1, capacity / 100); // 1% window
+        this.mainMax = Math.max(0, capacity - windowMax);
+        this.protectedMax = mainMax * 80 / 100;
+        this.sketch = new FrequencySketch(capacity);
+    }
+
+    @Override
+    public void recordAccess(K key) {
+        sketch.increment(key);
+        if (!onHit(key)) {
+            window.put(key, Boolean.TRUE);
+        }
+    }
+
+    @Override
+    public void recordHit(K key) {
+        sketch.increment(key);
+        onHit(key);
+    }
+
+    @Override
+    public K findEvictionTarget() {
+        if (size() <= capacity) return null;
+        return selectVictim();
+    }
+
+    @Override
+    public K selectVictim() {
+        // main 에 여유가 있으면 window 에서 밀려난 키를 그대로 probation 으로 보낸다
+        while (window.size() > windowMax && probation.size() + protectedRegion.size() < mainMax) {
+            K moved = eldest(window);
+            window.remove(moved);
+            probation.put(moved, Boolean.TRUE);
+        }
+
+        K victim = eldest(probation);
+        if (victim == null) {
+            victim = eldest(protectedRegion);
+        }
+
+        if (window.size() > windowMax) {
+            K candidate = eldest(window);
+            if (victim == null) {
+                return candidate;
+            }
+            // admission: 후보가 희생자보다 자주 쓰였을 때만 main 에 들인다
+            if (sketch.frequency(candidate) > sketch.frequency(victim)) {
+                window.remove(candidate);
+                probation.put(candidate, Boolean.TRUE);
+                return victim;
+            }
+            return candidate;
+        }
+
+        return victim != null ? victim : eldest(window);
+    }
+
+    @Override
+    public void remove(K key) {
+        if (window.remove(key) == null && probation.remove(key) == null) {
+            protectedRegion.remove(key);
+        }
+    }
+
+    @Override
+    public List<K> getKeysInAccessOrder() {
+        List<K> keys = new ArrayList<>(size());
+        keys.addAll(probation.keySet());
+        keys.addAll(protectedRegion.keySet());
+        keys.addAll(window.keySet());
+        return keys;
+    }
+
+    @Override
+    public void restoreOrder(List<K> keys) {
+        window.clear();
+        probation.clear();
+        protectedRegion.clear();
+
+        // 가장 최근 키들은 window 로, 나머지는 probation 으로 복원한다
+        int windowStart = Math.max(0, keys.size() - windowMax);
+        for (int i = 0; i < keys.size(); i++) {
+            K key = keys.get(i);
+            sketch.increment(key);
+            (i < windowStart ? probation : window).put(key, Boolean.TRUE);
+        }
+    }
+
+    private boolean onHit(K key) {
+        if (window.get(key) != null || protectedRegion.get(key) != null) {
+            return true;
+        }
+        if (probation.remove(key) != null) {
+            protectedRegion.put(key, Boolean.TRUE);
+            // protected 가 넘치면 가장 오래된 키를 probation 으로 강등한다
+            if (protectedRegion.size() > protectedMax) {
+                K demoted = eldest(protectedRegion);
+                protectedRegion.remove(demoted);
+                probation.put(demoted, Boolean.TRUE);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private int size() {
+        return window.size() + probation.size() + protectedRegion.size();
+    }
+
+    private static <K> K eldest(LinkedHashMap<K, Boolean> region) {
+        return region.isEmpty() ? null : region.keySet().iterator().next();
+    }
+}
@@ -0,0 +1,15 @@
+package com.cache;
+
+// 값을 바이트로 바꾸는 codec (off-heap 저장, 바이너리 snapshot 용)
+public interface ValueCodec<V> {
+
+    byte[] encode(V value);
+
+    V decode(byte[] bytes);
+
+    // String 은 Latin-1/UTF-8, byte[] 는 그대로, 나머지는 Java 직렬화
+    @SuppressWarnings("unchecked")
+    static <V> ValueCodec<V> auto() {
+        return (ValueCodec<V>) DefaultValueCodec.INSTANCE;
+    }
+}
@@ -0,0 +1,42 @@
+package com.common;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// 백그라운드 스레드가 1ms 마다 갱신하는 시계. 읽기는 volatile read 한 번이다.
+public final class CachedClock implements Clock {
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private volatile long now = System.currentTimeMillis();
+
+    private CachedClock() {
+    }
+
+    public static CachedClock shared() {
+        return Holder.INSTANCE;
+    }
+
+    @Override
+    public long millis() {
+        return now;
+    }
+
+    private void tick() {
+        while (true) {
+            now = System.currentTimeMillis();
+            LockSupport.parkNanos(TICK_NANOS);
+        }
+    }
+
+    private static final class Holder {
+        private static final CachedClock INSTANCE = start();
+
+        private static CachedClock start() {
+            CachedClock clock = new CachedClock();
+            Thread ticker = new Thread(clock::tick, "cached-clock");
+            ticker.setDaemon(true);
+            ticker.start();
+            return clock;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.common;
+
+// 현재 시각(ms) 공급원. 운영에서는 CachedClock, 테스트에서는 ManualClock 을 넣는다
+@FunctionalInterface
+public interface Clock {
+    long millis();
+
+    static Clock system() {
+        return System::currentTimeMillis;
+    }
+}
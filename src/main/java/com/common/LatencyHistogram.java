@@ -0,0 +1,149 @@
+package com.common;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// 나노초 단위 지연 시간 히스토그램 (HdrHistogram 과 같은 log-linear bucket).
+// 2의 거듭제곱 구간마다 32개 bucket 으로 나누므로 상대 오차는 약 3% 이내이고, 크기는 값 범위와 무관하게 고정이다.
+// record 는 lock 없이 여러 스레드에서 호출할 수 있다. 읽는 쪽은 그 순간의 근삿값을 본다.
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF = SUB_BUCKETS / 2;
+    private static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BUCKET_BITS + 1) * HALF;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(indexOf(value));
+        total.increment();
+        sum.add(value);
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long count = other.counts.get(i);
+            if (count != 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+        total.add(other.total.sum());
+        sum.add(other.sum.sum());
+        long otherMax = other.max.get();
+        long current = max.get();
+        while (otherMax > current && !max.compareAndSet(current, otherMax)) {
+            current = max.get();
+        }
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        total.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    public long count() {
+        return total.sum();
+    }
+
+    public long maxNanos() {
+        return max.get();
+    }
+
+    public double meanNanos() {
+        long count = total.sum();
+        return count == 0 ? 0 : (double) sum.sum() / count;
+    }
+
+    // percentile 은 0~100. 해당 bucket 의 상한을 반환하되 최댓값을 넘지 않는다
+    public long percentileNanos(double percentile) {
+        long count = total.sum();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    public double percentileMicros(double percentile) {
+        return percentileNanos(percentile) / (double) TimeUnit.MICROSECONDS.toNanos(1);
+    }
+
+    // [lowerNanos, upperNanos] 구간의 개수를 작은 값부터 넘겨준다 (0 인 bucket 은 건너뛴다)
+    public void forEachBucket(BucketVisitor visitor) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long count = counts.get(i);
+            if (count != 0) {
+                visitor.visit(lowerBound(i), upperBound(i), count);
+            }
+        }
+    }
+
+    // i 번째 값은 (2^(i-1), 2^i] 마이크로초 구간의 개수 (0 번째는 1us 이하). 0 이 아닌 마지막 구간까지만 담는다
+    public long[] countsByPowerOfTwoMicros() {
+        long[] ranges = new long[64];
+        int[] last = {-1};
+        forEachBucket((lower, upper, count) -> {
+            long micros = Math.max(1, upper / TimeUnit.MICROSECONDS.toNanos(1));
+            int index = 64 - Long.numberOfLeadingZeros(micros - 1);
+            ranges[index] += count;
+            last[0] = Math.max(last[0], index);
+        });
+        return Arrays.copyOf(ranges, last[0] + 1);
+    }
+
+    @FunctionalInterface
+    public interface BucketVisitor {
+        void visit(long lowerNanos, long upperNanos, long count);
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS + 1;
+        int sub = (int) (value >>> shift);
+        return SUB_BUCKETS + (shift - 1) * HALF + (sub - HALF);
+    }
+
+    static long lowerBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / HALF + 1;
+        long sub = (index - SUB_BUCKETS) % HALF + HALF;
+        return sub << shift;
+    }
+
+    static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / HALF + 1;
+        long sub = (index - SUB_BUCKETS) % HALF + HALF;
+        // 마지막 bucket 은 long 범위를 넘지 않게 자른다
+        long upper = ((sub + 1) << shift) - 1;
+        return upper < 0 ? Long.MAX_VALUE : upper;
+    }
+}
@@ -0,0 +1,195 @@
+package com.common;
+
+import java.io.PrintStream;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+// 비동기 로거. 호출한 스레드는 ring buffer 에 넣기만 하고, 포맷과 콘솔 출력은 "log-writer" 데몬 스레드가 한다.
+// buffer 가 가득 차면 기다리지 않고 버린 뒤 버린 개수만 나중에 알린다.
+// eviction/만료처럼 잦은 이벤트는 Counter 로 세어 두었다가 1초마다 한 줄로 남긴다.
+public final class Log {
+    public enum Level {
+        DEBUG, INFO, WARN, ERROR
+    }
+
+    private static final int CAPACITY = 8192;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long COUNTER_INTERVAL_MILLIS = 1_000;
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    private static final RingBuffer<Record> buffer = new RingBuffer<>(CAPACITY);
+    private static final LongAdder dropped = new LongAdder();
+    private static final List<Counter> counters = new CopyOnWriteArrayList<>();
+    // RingBuffer.poll 은 한 스레드만 부를 수 있으므로 writer 스레드와 flush() 가 이 lock 으로 번갈아 꺼낸다
+    private static final ReentrantLock drainLock = new ReentrantLock();
+    private static long lastCounterMillis = System.currentTimeMillis(); // drainLock 안에서만 접근
+    private static volatile Level level = Level.INFO;
+
+    static {
+        Thread writer = new Thread(Log::writeLoop, "log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    private Log() {
+    }
+
+    public static void setLevel(Level level) {
+        Log.level = level;
+    }
+
+    public static boolean isEnabled(Level level) {
+        return level.compareTo(Log.level) >= 0;
+    }
+
+    // format 은 String.format 형식. 인자가 없으면 그대로 출력한다 (메시지에 % 가 있어도 된다)
+    public static void debug(String format, Object... args) {
+        log(Level.DEBUG, format, args);
+    }
+
+    public static void info(String format, Object... args) {
+        log(Level.INFO, format, args);
+    }
+
+    public static void warn(String format, Object... args) {
+        log(Level.WARN, format, args);
+    }
+
+    public static void error(String format, Object... args) {
+        log(Level.ERROR, format, args);
+    }
+
+    public static void log(Level level, String format, Object... args) {
+        if (!isEnabled(level)) {
+            return;
+        }
+        Record record = new Record(System.currentTimeMillis(), level, Thread.currentThread().getName(), format, args);
+        if (!buffer.offer(record)) {
+            dropped.increment();
+        }
+    }
+
+    // 예: Log.counter("[LRU] evicted", "keys") -> "[LRU] evicted 12,304 keys in last 1s"
+    public static Counter counter(String prefix, String unit) {
+        Counter counter = new Counter(prefix, unit);
+        counters.add(counter);
+        return counter;
+    }
+
+    // 쌓인 로그와 counter 를 지금 모두 출력한다 (종료 직전 등)
+    public static void flush() {
+        drain(true);
+    }
+
+    private static void writeLoop() {
+        while (true) {
+            try {
+                if (drain(false) == 0) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            } catch (RuntimeException e) {
+                // 잘못된 format 등으로 writer 가 멈추지 않게 한다
+                System.err.println("[log] write error: " + e);
+            }
+        }
+    }
+
+    // 출력한 줄 수를 반환한다
+    private static int drain(boolean force) {
+        drainLock.lock();
+        try {
+            int written = 0;
+            Record record;
+            while ((record = buffer.poll()) != null) {
+                write(record.millis(), record.level(), record.thread(), record.message());
+                written++;
+            }
+
+            long now = System.currentTimeMillis();
+            long droppedCount = dropped.sumThenReset();
+            if (droppedCount > 0) {
+                write(now, Level.WARN, "log-writer",
+                        String.format(Locale.ROOT, "[log] dropped %,d messages (buffer full)", droppedCount));
+                written++;
+            }
+            if (force || now - lastCounterMillis >= COUNTER_INTERVAL_MILLIS) {
+                written += writeCounters(now);
+            }
+            if (written > 0) {
+                System.out.flush();
+                System.err.flush();
+            }
+            return written;
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    private static int writeCounters(long now) {
+        long seconds = Math.max(1, Math.round((now - lastCounterMillis) / 1_000.0));
+        lastCounterMillis = now;
+        int written = 0;
+        for (Counter counter : counters) {
+            long count = counter.takeDelta();
+            if (count > 0 && isEnabled(Level.INFO)) {
+                write(now, Level.INFO, "log-writer", String.format(Locale.ROOT, "%s %,d %s in last %ds",
+                        counter.prefix, count, counter.unit, seconds));
+                written++;
+            }
+        }
+        return written;
+    }
+
+    private static void write(long millis, Level level, String thread, String message) {
+        PrintStream out = level.compareTo(Level.WARN) >= 0 ? System.err : System.out;
+        out.println(TIME_FORMAT.format(Instant.ofEpochMilli(millis)) + " " + String.format("%-5s", level)
+                + " [" + thread + "] " + message);
+    }
+
+    private record Record(long millis, Level level, String thread, String format, Object[] args) {
+        String message() {
+            return args.length == 0 ? format : String.format(Locale.ROOT, format, args);
+        }
+    }
+
+    // 자주 일어나는 이벤트를 한 줄씩 찍지 않고 개수만 센다 (LongAdder 라 contention 이 적다)
+    public static final class Counter {
+        private final String prefix;
+        private final String unit;
+        private final LongAdder count = new LongAdder();
+        // 지난번까지 출력한 합계 (drainLock 안에서만 접근).
+        // sumThenReset 은 sum 과 reset 사이에 들어온 add 를 잃으므로, 합계는 그대로 두고 차이만 출력한다
+        private long reported;
+
+        private Counter(String prefix, String unit) {
+            this.prefix = prefix;
+            this.unit = unit;
+        }
+
+        private long takeDelta() {
+            long total = count.sum();
+            long delta = total - reported;
+            reported = total;
+            return delta;
+        }
+
+        public void increment() {
+            count.increment();
+        }
+
+        public void add(long n) {
+            if (n > 0) {
+                count.add(n);
+            }
+        }
+    }
+}
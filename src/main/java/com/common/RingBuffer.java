@@ -0,0 +1,60 @@
+package com.common;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// 여러 스레드가 넣고 한 스레드가 꺼내는 고정 크기 큐 (칸마다 sequence 를 두는 bounded ring).
+// offer 는 lock 도 대기도 없이, 가득 찼으면 false 를 반환한다.
+// poll 은 한 번에 한 스레드만 불러야 한다.
+final class RingBuffer<T> {
+    private final int mask;
+    private final AtomicReferenceArray<T> slots;
+    // 칸 i 의 sequence 가 pos 이면 pos 번째 offer 가 쓸 수 있고, pos + 1 이면 pos 번째 poll 이 읽을 수 있다
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private long head; // poll 하는 스레드만 접근
+
+    RingBuffer(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two.");
+        }
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    boolean offer(T value) {
+        while (true) {
+            long pos = tail.get();
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    slots.set(index, value);
+                    sequences.set(index, pos + 1);
+                    return true;
+                }
+            } else if (diff < 0) {
+                // 한 바퀴 전의 값을 아직 꺼내지 않았다
+                return false;
+            }
+            // diff > 0: 다른 스레드가 이 칸을 먼저 가져갔다. tail 을 다시 읽는다
+        }
+    }
+
+    T poll() {
+        int index = (int) (head & mask);
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        T value = slots.get(index);
+        slots.set(index, null);
+        sequences.set(index, head + mask + 1);
+        head++;
+        return value;
+    }
+}
@@ -1,41 +1,123 @@
 package com.server;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
+import com.common.Log;
+
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
 
 public class ClientHandler implements Runnable {
+    private static final int INITIAL_BUFFER_SIZE = 16 * 1024;
+    // 응답이 이만큼 쌓이면 입력이 남아 있어도 내보낸다
+    private static final int FLUSH_THRESHOLD = 64 * 1024;
+
     private final Socket socket;
     private final CommandParser commandParser;
+    private final boolean greeting;
 
     public ClientHandler(Socket socket, CommandParser commandParser) {
+        this(socket, commandParser, false);
+    }
+
+    public ClientHandler(Socket socket, CommandParser commandParser, boolean greeting) {
         this.socket = socket;
         this.commandParser = commandParser;
+        this.greeting = greeting;
     }
 
     @Override
     public void run() {
+        ServerStats stats = commandParser.stats();
+        stats.clientConnected();
+        String client = address(socket);
         try (
-            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream()))
+            socket;
+            InputStream in = socket.getInputStream();
+            OutputStream out = socket.getOutputStream()
         ) {
-            writer.write("+OK MiniRedis ready\r\n");
-            writer.flush();
-
-            String line;
-            while ((line = reader.readLine()) != null) {
-                CommandResult result = commandParser.handle(line);
-                writer.write(result.response() + "\r\n");
-                writer.flush();
-                if (result.shouldClose()) {
+            RespParser parser = new RespParser();
+            ReplyBuffer reply = new ReplyBuffer(INITIAL_BUFFER_SIZE);
+            ByteBuffer buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+            if (greeting) {
+                RespEncoder.encode(CommandResult.status("OK MiniRedis ready"), true, reply);
+                write(reply, out, stats);
+                out.flush();
+            }
+
+            while (true) {
+                if (!buffer.hasRemaining()) {
+                    try {
+                        buffer = RespParser.expand(buffer);
+                    } catch (ProtocolException e) {
+                        protocolError(e, reply, out, stats);
+                        return;
+                    }
+                }
+                int read = in.read(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+                if (read < 0) {
                     break;
                 }
+                buffer.position(buffer.position() + read);
+                stats.bytesIn(read);
+
+                buffer.flip();
+                try {
+                    RespRequest request;
+                    while ((request = parser.parse(buffer)) != null) {
+                        CommandResult result = commandParser.handle(request, client);
+                        RespEncoder.encode(result, request.isMultiBulk(), reply);
+                        if (result.shouldClose()) {
+                            write(reply, out, stats);
+                            out.flush();
+                            return;
+                        }
+                        if (reply.size() >= FLUSH_THRESHOLD) {
+                            write(reply, out, stats);
+                        }
+                    }
+                } catch (ProtocolException e) {
+                    protocolError(e, reply, out, stats);
+                    return;
+                }
+                buffer.compact();
+                buffer = RespParser.shrink(buffer, INITIAL_BUFFER_SIZE);
+
+                // pipeline: 이미 도착한 입력이 남아 있으면 먼저 처리하고, 다 읽은 뒤 한 번에 write 한다
+                if (!reply.isEmpty() && in.available() == 0) {
+                    write(reply, out, stats);
+                    out.flush();
+                }
             }
         } catch (IOException e) {
-            System.out.println("Client disconnected: " + e.getMessage());
+            Log.debug("Client disconnected: " + e.getMessage());
+        } finally {
+            stats.clientDisconnected();
+        }
+    }
+
+    // 127.0.0.1:54321
+    static String address(Socket socket) {
+        SocketAddress remote = socket.getRemoteSocketAddress();
+        if (remote instanceof InetSocketAddress inet) {
+            return inet.getAddress().getHostAddress() + ":" + inet.getPort();
         }
+        return String.valueOf(remote);
+    }
+
+    private static void protocolError(ProtocolException e, ReplyBuffer reply, OutputStream out, ServerStats stats)
+            throws IOException {
+        RespEncoder.encode(CommandResult.error("Protocol error: " + e.getMessage()), true, reply);
+        write(reply, out, stats);
+        out.flush();
+    }
+
+    private static void write(ReplyBuffer reply, OutputStream out, ServerStats stats) throws IOException {
+        stats.bytesOut(reply.size());
+        reply.writeTo(out);
     }
-}
\ No newline at end of file
+}
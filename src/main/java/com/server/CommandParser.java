@@ -1,8 +1,16 @@
 package com.server;
 
+import com.cache.AppendOnlyLog;
+import com.cache.AppendOnlyLogException;
 import com.cache.CacheEntry;
+import com.cache.CacheLoadingException;
 import com.cache.CacheStore;
+import com.cache.LoadingStatus;
+import com.cache.SnapshotManager;
+import com.cache.MaxMemoryExceededException;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -10,29 +18,106 @@ import java.util.StringJoiner;
 import java.util.concurrent.TimeUnit;
 
 public class CommandParser {
+    // HELP 순서. 명령별 통계도 이 목록으로 미리 만든다
+    static final List<String> COMMANDS = List.of("PING", "QUIT", "SET", "GET", "DEL", "MGET", "MSET", "EXISTS", "TTL",
+            "MEMORY", "DUMP", "SAVE", "BGSAVE", "LASTSAVE", "BGREWRITEAOF", "INFO", "LATENCY", "SLOWLOG", "HELP");
+    // 섹션 없이 INFO 를 부르면 보여 주는 섹션 (commandstats/latencystats 는 all 일 때만)
+    private static final List<String> DEFAULT_INFO_SECTIONS =
+            List.of("server", "clients", "memory", "persistence", "stats", "keyspace");
+    private static final List<String> ALL_INFO_SECTIONS = List.of("server", "clients", "memory", "persistence",
+            "stats", "commandstats", "latencystats", "keyspace");
+
     private final CacheStore<String, String> cacheStore;
+    // 없으면 SAVE/BGSAVE/LASTSAVE 를 거절한다
+    private final SnapshotManager<String, String> snapshotManager;
+    private final ServerStats stats = new ServerStats(COMMANDS);
+    private final SlowLog slowLog;
 
     public CommandParser(CacheStore<String, String> cacheStore) {
+        this(cacheStore, null);
+    }
+
+    public CommandParser(CacheStore<String, String> cacheStore, SnapshotManager<String, String> snapshotManager) {
+        this(cacheStore, snapshotManager, new SlowLog());
+    }
+
+    public CommandParser(CacheStore<String, String> cacheStore, SnapshotManager<String, String> snapshotManager,
+                         SlowLog slowLog) {
         this.cacheStore = cacheStore;
+        this.snapshotManager = snapshotManager;
+        this.slowLog = slowLog;
+    }
+
+    // 연결 수와 입출력 바이트는 연결 처리 쪽(ClientHandler/NioConnection)이 여기에 더한다
+    public ServerStats stats() {
+        return stats;
     }
 
     public CommandResult handle(String rawCommand) {
-        if (rawCommand == null || rawCommand.trim().isEmpty()) {
+        if (rawCommand == null) {
+            return CommandResult.error("empty command");
+        }
+        return execute(tokenize(rawCommand));
+    }
+
+    public CommandResult handle(RespRequest request) {
+        return handle(request, null);
+    }
+
+    // client: SLOWLOG 에 남길 접속 주소 (ip:port)
+    public CommandResult handle(RespRequest request, String client) {
+        return execute(request.arguments(), client);
+    }
+
+    public CommandResult execute(List<String> tokens) {
+        return execute(tokens, null);
+    }
+
+    public CommandResult execute(List<String> tokens, String client) {
+        if (tokens.isEmpty()) {
             return CommandResult.error("empty command");
         }
 
-        List<String> tokens = List.of(rawCommand.trim().split("\\s+"));
         String command = tokens.get(0).toUpperCase(Locale.ROOT);
+        ServerStats.CommandStats commandStats = stats.command(command);
+
+        long started = System.nanoTime();
+        CommandResult result;
+        try {
+            result = dispatch(command, tokens);
+        } catch (CacheLoadingException e) {
+            result = CommandResult.error("LOADING", e.getMessage());
+        } catch (AppendOnlyLogException e) {
+            result = CommandResult.error("MISCONF", e.getMessage());
+        }
+        long elapsed = System.nanoTime() - started;
+        stats.recordCommand(commandStats, elapsed, result.type() == CommandResult.Type.ERROR);
+        if (slowLog.isSlow(elapsed)) {
+            slowLog.add(tokens, elapsed, client);
+        }
+        return result;
+    }
 
+    private CommandResult dispatch(String command, List<String> tokens) {
         return switch (command) {
-            case "PING" -> CommandResult.reply("+PONG");
-            case "QUIT" -> CommandResult.closing("+BYE");
+            case "PING" -> CommandResult.status("PONG");
+            case "QUIT" -> CommandResult.closing("BYE");
             case "SET" -> handleSet(tokens);
             case "GET" -> handleGet(tokens);
             case "DEL" -> handleDel(tokens);
+            case "MGET" -> handleMget(tokens);
+            case "MSET" -> handleMset(tokens);
             case "EXISTS" -> handleExists(tokens);
             case "TTL" -> handleTtl(tokens);
+            case "MEMORY" -> handleMemory(tokens);
             case "DUMP" -> handleDump();
+            case "SAVE" -> handleSave();
+            case "BGSAVE" -> handleBgSave();
+            case "LASTSAVE" -> handleLastSave();
+            case "BGREWRITEAOF" -> handleBgRewriteAof();
+            case "INFO" -> handleInfo(tokens);
+            case "LATENCY" -> handleLatency(tokens);
+            case "SLOWLOG" -> handleSlowLog(tokens);
             case "HELP" -> handleHelp();
             default -> CommandResult.error("unknown command");
         };
@@ -60,12 +145,16 @@ public class CommandParser {
             ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
         }
 
-        if (ttlMillis > 0) {
-            cacheStore.set(key, value, ttlMillis);
-        } else {
-            cacheStore.set(key, value);
+        try {
+            if (ttlMillis > 0) {
+                cacheStore.set(key, value, ttlMillis);
+            } else {
+                cacheStore.set(key, value);
+            }
+        } catch (MaxMemoryExceededException e) {
+            return CommandResult.error("OOM", e.getMessage());
         }
-        return CommandResult.reply("+OK");
+        return CommandResult.status("OK");
     }
 
     private CommandResult handleGet(List<String> tokens) {
@@ -74,20 +163,58 @@ public class CommandParser {
         }
         String key = tokens.get(1);
         String value = cacheStore.get(key);
-        return value != null ? CommandResult.value(value) : CommandResult.error("key not found");
+        return value != null ? CommandResult.value(value) : CommandResult.nil("key not found");
     }
 
     private CommandResult handleDel(List<String> tokens) {
         if (tokens.size() < 2) {
             return CommandResult.error("DEL requires at least one key");
         }
-        long removed = 0;
-        for (int i = 1; i < tokens.size(); i++) {
-            if (cacheStore.del(tokens.get(i))) {
-                removed++;
+        if (tokens.size() == 2) {
+            return CommandResult.integer(cacheStore.del(tokens.get(1)) ? 1 : 0);
+        }
+        return CommandResult.integer(cacheStore.delAll(tokens.subList(1, tokens.size())));
+    }
+
+    private CommandResult handleMget(List<String> tokens) {
+        if (tokens.size() < 2) {
+            return CommandResult.error("MGET requires at least one key");
+        }
+        List<String> values = cacheStore.getAll(tokens.subList(1, tokens.size()));
+        List<CommandResult> elements = new ArrayList<>(values.size());
+        for (String value : values) {
+            elements.add(value != null ? CommandResult.value(value) : CommandResult.nil("key not found"));
+        }
+        return CommandResult.array(elements);
+    }
+
+    // MSET key value [key value ...] [EX seconds]
+    private CommandResult handleMset(List<String> tokens) {
+        int end = tokens.size();
+        long ttlMillis = -1;
+
+        if (end >= 5 && "EX".equalsIgnoreCase(tokens.get(end - 2))) {
+            try {
+                ttlMillis = TimeUnit.SECONDS.toMillis(parsePositiveLong(tokens.get(end - 1), "ttl"));
+            } catch (IllegalArgumentException e) {
+                return CommandResult.error(e.getMessage());
             }
+            end -= 2;
         }
-        return CommandResult.reply(":" + removed);
+        if (end < 3 || (end - 1) % 2 != 0) {
+            return CommandResult.error("MSET syntax: MSET key value [key value ...] [EX seconds]");
+        }
+
+        Map<String, String> values = new LinkedHashMap<>();
+        for (int i = 1; i < end; i += 2) {
+            values.put(tokens.get(i), tokens.get(i + 1));
+        }
+        try {
+            cacheStore.setAll(values, ttlMillis);
+        } catch (MaxMemoryExceededException e) {
+            return CommandResult.error("OOM", e.getMessage());
+        }
+        return CommandResult.status("OK");
     }
 
     private CommandResult handleExists(List<String> tokens) {
@@ -95,7 +222,7 @@ public class CommandParser {
             return CommandResult.error("EXISTS requires a key");
         }
         boolean exists = cacheStore.exists(tokens.get(1));
-        return CommandResult.reply(":" + (exists ? 1 : 0));
+        return CommandResult.integer(exists ? 1 : 0);
     }
 
     private CommandResult handleTtl(List<String> tokens) {
@@ -104,24 +231,310 @@ public class CommandParser {
         }
         long ttl = cacheStore.ttl(tokens.get(1));
         if (ttl < 0) {
-            return CommandResult.reply(":-1");
+            return CommandResult.integer(-1);
         }
-        return CommandResult.reply(":" + TimeUnit.MILLISECONDS.toSeconds(ttl));
+        return CommandResult.integer(TimeUnit.MILLISECONDS.toSeconds(ttl));
+    }
+
+    // MEMORY USAGE key | MEMORY STATS
+    private CommandResult handleMemory(List<String> tokens) {
+        String sub = tokens.size() > 1 ? tokens.get(1).toUpperCase(Locale.ROOT) : "";
+        if (sub.equals("USAGE") && tokens.size() == 3) {
+            long usage = cacheStore.memoryUsage(tokens.get(2));
+            return usage >= 0 ? CommandResult.integer(usage) : CommandResult.nil("key not found");
+        }
+        if (sub.equals("STATS") && tokens.size() == 2) {
+            return CommandResult.array(List.of(
+                    CommandResult.value("used_memory"), CommandResult.integer(cacheStore.usedMemory()),
+                    CommandResult.value("maxmemory"), CommandResult.integer(cacheStore.maxMemory()),
+                    CommandResult.value("keys"), CommandResult.integer(cacheStore.size()),
+                    CommandResult.value("evicted_keys"), CommandResult.integer(cacheStore.evictedKeys()),
+                    CommandResult.value("offheap_allocated"), CommandResult.integer(cacheStore.offHeapBytes())));
+        }
+        return CommandResult.error("MEMORY syntax: MEMORY USAGE key | MEMORY STATS");
     }
 
     private CommandResult handleDump() {
         Map<String, CacheEntry<String>> snapshot = cacheStore.dumpAll();
         if (snapshot.isEmpty()) {
-            return CommandResult.reply("+EMPTY");
+            return CommandResult.status("EMPTY");
         }
         StringJoiner joiner = new StringJoiner(" ");
         snapshot.forEach((key, entry) -> joiner.add(key + "=" + entry.getValue()));
-        return CommandResult.reply("+DUMP " + joiner);
+        return CommandResult.status("DUMP " + joiner);
+    }
+
+    // 저장이 끝날 때까지 이 연결의 응답을 막는다. 다른 연결의 요청은 계속 처리된다
+    private CommandResult handleSave() {
+        if (snapshotManager == null) {
+            return CommandResult.error("snapshot is disabled");
+        }
+        if (snapshotManager.isSaving()) {
+            return CommandResult.error("Background save already in progress");
+        }
+        return snapshotManager.saveSnapshot() ? CommandResult.status("OK") : CommandResult.error("snapshot save failed");
+    }
+
+    private CommandResult handleBgSave() {
+        if (snapshotManager == null) {
+            return CommandResult.error("snapshot is disabled");
+        }
+        if (cacheStore.isLoading()) {
+            return CommandResult.error("LOADING", "dataset is still loading from snapshot");
+        }
+        if (snapshotManager.isSaving() || snapshotManager.saveSnapshotInBackground().isCompletedExceptionally()) {
+            return CommandResult.error("Background save already in progress");
+        }
+        return CommandResult.status("Background saving started");
+    }
+
+    // 마지막으로 저장에 성공한 시각 (unix seconds)
+    private CommandResult handleLastSave() {
+        if (snapshotManager == null) {
+            return CommandResult.error("snapshot is disabled");
+        }
+        return CommandResult.integer(TimeUnit.MILLISECONDS.toSeconds(snapshotManager.lastSaveMillis()));
+    }
+
+    // 완료를 기다리지 않고 바로 응답한다
+    private CommandResult handleBgRewriteAof() {
+        AppendOnlyLog<String, String> log = cacheStore.appendLog();
+        if (log == null) {
+            return CommandResult.error("append only log is disabled");
+        }
+        if (cacheStore.isLoading()) {
+            return CommandResult.error("LOADING", "dataset is still loading from snapshot");
+        }
+        if (log.isRewriting() || log.rewriteInBackground(cacheStore).isCompletedExceptionally()) {
+            return CommandResult.error("Background append only file rewriting already in progress");
+        }
+        return CommandResult.status("Background append only file rewriting started");
+    }
+
+    // INFO [section]: 섹션 이름, default(생략 시), all
+    private CommandResult handleInfo(List<String> tokens) {
+        if (tokens.size() > 2) {
+            return CommandResult.error("INFO syntax: INFO [section]");
+        }
+        String section = tokens.size() == 2 ? tokens.get(1).toLowerCase(Locale.ROOT) : "default";
+        List<String> sections = switch (section) {
+            case "default" -> DEFAULT_INFO_SECTIONS;
+            case "all", "everything" -> ALL_INFO_SECTIONS;
+            default -> ALL_INFO_SECTIONS.contains(section) ? List.of(section) : List.of();
+        };
+        StringJoiner info = new StringJoiner("\r\n");
+        for (String name : sections) {
+            if (info.length() > 0) {
+                info.add("");
+            }
+            switch (name) {
+                case "server" -> infoServer(info);
+                case "clients" -> infoClients(info);
+                case "memory" -> infoMemory(info);
+                case "persistence" -> infoPersistence(info);
+                case "stats" -> infoStats(info);
+                case "commandstats" -> infoCommandStats(info);
+                case "latencystats" -> infoLatencyStats(info);
+                case "keyspace" -> infoKeyspace(info);
+                default -> throw new IllegalStateException("unknown INFO section " + name);
+            }
+        }
+        return CommandResult.value(info.toString());
+    }
+
+    private void infoServer(StringJoiner info) {
+        long uptimeSeconds = TimeUnit.MILLISECONDS.toSeconds(stats.uptimeMillis());
+        info.add("# Server");
+        info.add("java_version:" + Runtime.version());
+        info.add("process_id:" + ProcessHandle.current().pid());
+        info.add("uptime_in_seconds:" + uptimeSeconds);
+        info.add("uptime_in_days:" + TimeUnit.SECONDS.toDays(uptimeSeconds));
+    }
+
+    private void infoClients(StringJoiner info) {
+        info.add("# Clients");
+        info.add("connected_clients:" + stats.connectedClients());
+    }
+
+    private void infoMemory(StringJoiner info) {
+        info.add("# Memory");
+        info.add("used_memory:" + cacheStore.usedMemory());
+        info.add("maxmemory:" + cacheStore.maxMemory());
+        info.add("offheap_allocated:" + cacheStore.offHeapBytes());
+        info.add("jvm_heap_used:" + (Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory()));
+    }
+
+    private void infoPersistence(StringJoiner info) {
+        LoadingStatus loading = cacheStore.loadingStatus();
+        AppendOnlyLog<String, String> log = cacheStore.appendLog();
+        info.add("# Persistence");
+        info.add("loading:" + (loading.loading() ? 1 : 0));
+        if (loading.loading()) {
+            info.add("loading_chunks:" + loading.chunks());
+            info.add("loading_chunks_loaded:" + loading.chunksLoaded());
+            info.add("loading_loaded_keys:" + loading.loadedKeys());
+            info.add("loading_on_demand_chunks:" + loading.onDemandLoads());
+        }
+        info.add("rdb_changes_since_last_save:" + cacheStore.changesSinceSave());
+        if (snapshotManager != null) {
+            info.add("rdb_bgsave_in_progress:" + (snapshotManager.isSaving() ? 1 : 0));
+            info.add("rdb_last_save_time:" + TimeUnit.MILLISECONDS.toSeconds(snapshotManager.lastSaveMillis()));
+            info.add("rdb_last_bgsave_status:" + (snapshotManager.lastSaveSucceeded() ? "ok" : "err"));
+        }
+        info.add("aof_enabled:" + (log != null ? 1 : 0));
+        info.add("aof_rewrite_in_progress:" + (log != null && log.isRewriting() ? 1 : 0));
+    }
+
+    private void infoStats(StringJoiner info) {
+        info.add("# Stats");
+        info.add("total_connections_received:" + stats.totalConnections());
+        info.add("total_commands_processed:" + stats.totalCommands());
+        info.add("total_net_input_bytes:" + stats.bytesIn());
+        info.add("total_net_output_bytes:" + stats.bytesOut());
+        info.add("expired_keys:" + cacheStore.expiredKeys());
+        info.add("evicted_keys:" + cacheStore.evictedKeys());
+        info.add("keyspace_hits:" + cacheStore.keyspaceHits());
+        info.add("keyspace_misses:" + cacheStore.keyspaceMisses());
+        info.add("total_error_replies:" + stats.errorReplies());
+        info.add("unknown_commands:" + stats.unknownCommands());
+    }
+
+    // cmdstat_get:calls=10,usec=25,usec_per_call=2.50,failed_calls=0 (호출된 명령만)
+    private void infoCommandStats(StringJoiner info) {
+        info.add("# Commandstats");
+        for (ServerStats.CommandStats command : stats.commands()) {
+            long calls = command.calls();
+            if (calls == 0) {
+                continue;
+            }
+            double meanMicros = command.latency().meanNanos() / 1_000.0;
+            info.add(String.format(Locale.ROOT, "cmdstat_%s:calls=%d,usec=%d,usec_per_call=%.2f,failed_calls=%d",
+                    command.name().toLowerCase(Locale.ROOT), calls, Math.round(meanMicros * command.latency().count()),
+                    meanMicros, command.failedCalls()));
+        }
+    }
+
+    private void infoLatencyStats(StringJoiner info) {
+        info.add("# Latencystats");
+        for (ServerStats.CommandStats command : stats.commands()) {
+            if (command.calls() == 0) {
+                continue;
+            }
+            info.add(String.format(Locale.ROOT, "latency_percentiles_usec_%s:p50=%.3f,p99=%.3f,p99.9=%.3f",
+                    command.name().toLowerCase(Locale.ROOT), command.latency().percentileMicros(50),
+                    command.latency().percentileMicros(99), command.latency().percentileMicros(99.9)));
+        }
+    }
+
+    private void infoKeyspace(StringJoiner info) {
+        info.add("# Keyspace");
+        int keys = cacheStore.size();
+        if (keys > 0) {
+            info.add("db0:keys=" + keys);
+        }
+    }
+
+    // LATENCY HISTOGRAM [command ...]
+    // 명령마다 [이름, [calls, n, histogram_usec, [2^i, 누적 개수, ...]]]. 호출된 적 없는 명령은 빠진다
+    private CommandResult handleLatency(List<String> tokens) {
+        if (tokens.size() < 2 || !tokens.get(1).equalsIgnoreCase("HISTOGRAM")) {
+            return CommandResult.error("LATENCY syntax: LATENCY HISTOGRAM [command ...]");
+        }
+        List<ServerStats.CommandStats> selected = new ArrayList<>();
+        if (tokens.size() == 2) {
+            for (ServerStats.CommandStats command : stats.commands()) {
+                if (command.calls() > 0) {
+                    selected.add(command);
+                }
+            }
+        } else {
+            for (String name : tokens.subList(2, tokens.size())) {
+                ServerStats.CommandStats command = stats.command(name.toUpperCase(Locale.ROOT));
+                if (command != null && command.calls() > 0 && !selected.contains(command)) {
+                    selected.add(command);
+                }
+            }
+        }
+
+        List<CommandResult> reply = new ArrayList<>();
+        for (ServerStats.CommandStats command : selected) {
+            List<CommandResult> buckets = new ArrayList<>();
+            long cumulative = 0;
+            long[] counts = command.latency().countsByPowerOfTwoMicros();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    continue;
+                }
+                cumulative += counts[i];
+                buckets.add(CommandResult.integer(1L << i));
+                buckets.add(CommandResult.integer(cumulative));
+            }
+            reply.add(CommandResult.value(command.name().toLowerCase(Locale.ROOT)));
+            reply.add(CommandResult.array(List.of(
+                    CommandResult.value("calls"), CommandResult.integer(command.calls()),
+                    CommandResult.value("histogram_usec"), CommandResult.array(buckets))));
+        }
+        return CommandResult.array(reply);
+    }
+
+    // SLOWLOG GET [count] | LEN | RESET
+    // GET 은 최근 것부터 [id, unix time, 실행 시간(us), [인자...], 접속 주소] 배열
+    private CommandResult handleSlowLog(List<String> tokens) {
+        String sub = tokens.size() > 1 ? tokens.get(1).toUpperCase(Locale.ROOT) : "";
+        if (sub.equals("LEN") && tokens.size() == 2) {
+            return CommandResult.integer(slowLog.size());
+        }
+        if (sub.equals("RESET") && tokens.size() == 2) {
+            slowLog.reset();
+            return CommandResult.status("OK");
+        }
+        if (sub.equals("GET") && tokens.size() <= 3) {
+            int count = 10;
+            if (tokens.size() == 3) {
+                try {
+                    count = Integer.parseInt(tokens.get(2));
+                } catch (NumberFormatException e) {
+                    return CommandResult.error("count must be an integer");
+                }
+            }
+            List<CommandResult> entries = new ArrayList<>();
+            for (SlowLog.Entry entry : slowLog.entries(count)) {
+                List<CommandResult> arguments = new ArrayList<>(entry.arguments().size());
+                entry.arguments().forEach(argument -> arguments.add(CommandResult.value(argument)));
+                entries.add(CommandResult.array(List.of(
+                        CommandResult.integer(entry.id()),
+                        CommandResult.integer(entry.timestampSeconds()),
+                        CommandResult.integer(entry.durationMicros()),
+                        CommandResult.array(arguments),
+                        CommandResult.value(entry.client()))));
+            }
+            return CommandResult.array(entries);
+        }
+        return CommandResult.error("SLOWLOG syntax: SLOWLOG GET [count] | SLOWLOG LEN | SLOWLOG RESET");
     }
 
     private CommandResult handleHelp() {
-        String commands = "PING, QUIT, SET, GET, DEL, EXISTS, TTL, DUMP, HELP";
-        return CommandResult.reply("+HELP " + commands);
+        return CommandResult.status("HELP " + String.join(", ", COMMANDS));
+    }
+
+    // 정규식 split 대신 공백 기준으로 직접 나눈다
+    private static List<String> tokenize(String rawCommand) {
+        List<String> tokens = new ArrayList<>();
+        int length = rawCommand.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && Character.isWhitespace(rawCommand.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && !Character.isWhitespace(rawCommand.charAt(i))) {
+                i++;
+            }
+            if (start < i) {
+                tokens.add(rawCommand.substring(start, i));
+            }
+        }
+        return tokens;
     }
 
     private long parsePositiveLong(String token, String fieldName) {
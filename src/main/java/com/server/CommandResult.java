@@ -1,20 +1,63 @@
 package com.server;
 
-public record CommandResult(String response, boolean shouldClose) {
-    public static CommandResult reply(String response) {
-        return new CommandResult(response, false);
+import java.util.List;
+import java.util.StringJoiner;
+
+public record CommandResult(Type type, String text, long number, List<CommandResult> elements,
+                            boolean shouldClose) {
+
+    public enum Type {
+        STATUS, ERROR, INTEGER, BULK, NULL, ARRAY
+    }
+
+    public static CommandResult status(String text) {
+        return new CommandResult(Type.STATUS, text, 0, List.of(), false);
     }
 
-    public static CommandResult closing(String response) {
-        return new CommandResult(response, true);
+    public static CommandResult closing(String text) {
+        return new CommandResult(Type.STATUS, text, 0, List.of(), true);
     }
 
     public static CommandResult error(String message) {
-        return reply("-ERR " + message);
+        return new CommandResult(Type.ERROR, "ERR " + message, 0, List.of(), false);
+    }
+
+    // "ERR" 대신 다른 오류 코드를 쓸 때 (ex. OOM)
+    public static CommandResult error(String code, String message) {
+        return new CommandResult(Type.ERROR, code + " " + message, 0, List.of(), false);
+    }
+
+    public static CommandResult integer(long number) {
+        return new CommandResult(Type.INTEGER, null, number, List.of(), false);
     }
 
     public static CommandResult value(String value) {
-        return reply("+VALUE " + value);
+        return new CommandResult(Type.BULK, value, 0, List.of(), false);
+    }
+
+    // RESP 에서는 null bulk, 텍스트 프로토콜에서는 "-ERR <message>" 로 응답한다
+    public static CommandResult nil(String message) {
+        return new CommandResult(Type.NULL, message, 0, List.of(), false);
     }
-}
 
+    public static CommandResult array(List<CommandResult> elements) {
+        return new CommandResult(Type.ARRAY, null, 0, List.copyOf(elements), false);
+    }
+
+    // 텍스트(inline) 프로토콜 응답. 줄바꿈은 포함하지 않는다
+    public String response() {
+        return switch (type) {
+            case STATUS -> "+" + text;
+            case ERROR -> "-" + text;
+            case INTEGER -> ":" + number;
+            case BULK -> "+VALUE " + text;
+            case NULL -> "-ERR " + text;
+            case ARRAY -> {
+                StringJoiner joiner = new StringJoiner("\r\n");
+                joiner.add("*" + elements.size());
+                elements.forEach(element -> joiner.add(element.type == Type.NULL ? "(nil)" : element.response()));
+                yield joiner.toString();
+            }
+        };
+    }
+}
@@ -0,0 +1,112 @@
+package com.server;
+
+import com.common.Log;
+
+import java.io.IOException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+class EventLoop implements Runnable {
+    private final CommandParser commandParser;
+    private final boolean greeting;
+    private final Selector selector;
+    private final Queue<SocketChannel> pending = new ConcurrentLinkedQueue<>();
+    private volatile boolean running = true;
+
+    EventLoop(CommandParser commandParser, boolean greeting) throws IOException {
+        this.commandParser = commandParser;
+        this.greeting = greeting;
+        this.selector = Selector.open();
+    }
+
+    // accept 스레드에서 호출된다. 실제 등록은 event loop 스레드에서 처리
+    void register(SocketChannel channel) {
+        pending.add(channel);
+        selector.wakeup();
+    }
+
+    void shutdown() {
+        running = false;
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                selector.select();
+                registerPending();
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    process(key);
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            Log.error("Event loop stopped: " + e.getMessage());
+        } finally {
+            closeAll();
+        }
+    }
+
+    private void registerPending() {
+        SocketChannel channel;
+        while ((channel = pending.poll()) != null) {
+            try {
+                SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                NioConnection connection = new NioConnection(channel, key, commandParser);
+                key.attach(connection);
+                if (greeting) {
+                    connection.greet();
+                }
+            } catch (IOException e) {
+                closeQuietly(channel);
+            }
+        }
+    }
+
+    private void process(SelectionKey key) {
+        NioConnection connection = (NioConnection) key.attachment();
+        try {
+            if (key.isValid() && key.isReadable()) {
+                connection.onReadable();
+            }
+            if (key.isValid() && key.isWritable()) {
+                connection.onWritable();
+            }
+        } catch (IOException e) {
+            Log.debug("Client disconnected: " + e.getMessage());
+            connection.close();
+        } catch (RuntimeException e) {
+            // 명령 하나의 버그로 이 loop 의 다른 연결까지 끊기지 않게 해당 연결만 닫는다
+            Log.error("Closing client after unexpected error: " + e);
+            connection.close();
+        }
+    }
+
+    private void closeAll() {
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof NioConnection connection) {
+                connection.close();
+            }
+        }
+        try {
+            selector.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
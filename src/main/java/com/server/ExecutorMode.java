@@ -0,0 +1,6 @@
+package com.server;
+
+public enum ExecutorMode {
+    PLATFORM, // workerThreads 크기의 고정 스레드 풀
+    VIRTUAL   // 연결마다 virtual thread (Java 21+)
+}
@@ -0,0 +1,6 @@
+package com.server;
+
+public enum IoMode {
+    BLOCKING, // 연결마다 워커 스레드가 readLine 에서 대기
+    NIO       // Selector 기반 event loop 가 여러 연결을 처리
+}
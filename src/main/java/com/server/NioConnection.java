@@ -0,0 +1,113 @@
+package com.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+// 연결 하나의 상태. event loop 스레드에서만 접근한다.
+class NioConnection {
+    private static final int INITIAL_BUFFER_SIZE = 4 * 1024;
+
+    private final SocketChannel channel;
+    private final SelectionKey key;
+    private final CommandParser commandParser;
+    private final String client;
+    private final RespParser parser = new RespParser();
+    private final ReplyBuffer reply = new ReplyBuffer(INITIAL_BUFFER_SIZE);
+    private ByteBuffer readBuffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private boolean closing;
+    private boolean closed;
+
+    NioConnection(SocketChannel channel, SelectionKey key, CommandParser commandParser) {
+        this.channel = channel;
+        this.key = key;
+        this.commandParser = commandParser;
+        this.client = ClientHandler.address(channel.socket());
+        commandParser.stats().clientConnected();
+    }
+
+    void greet() throws IOException {
+        RespEncoder.encode(CommandResult.status("OK MiniRedis ready"), true, reply);
+        flush();
+    }
+
+    void onReadable() throws IOException {
+        if (!readBuffer.hasRemaining()) {
+            try {
+                readBuffer = RespParser.expand(readBuffer);
+            } catch (ProtocolException e) {
+                protocolError(e);
+                flush();
+                return;
+            }
+        }
+        int read = channel.read(readBuffer);
+        if (read < 0) {
+            close();
+            return;
+        }
+        commandParser.stats().bytesIn(read);
+
+        readBuffer.flip();
+        processRequests();
+        readBuffer.compact();
+        readBuffer = RespParser.shrink(readBuffer, INITIAL_BUFFER_SIZE);
+
+        // 읽은 명령들의 응답을 모아 한 번에 write 한다
+        flush();
+    }
+
+    void onWritable() throws IOException {
+        flush();
+    }
+
+    // 닫는 경로가 여럿이라 (QUIT, EOF, event loop 종료) 연결 수는 처음 한 번만 뺀다
+    void close() {
+        if (!closed) {
+            closed = true;
+            commandParser.stats().clientDisconnected();
+        }
+        key.cancel();
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void processRequests() {
+        try {
+            RespRequest request;
+            while (!closing && (request = parser.parse(readBuffer)) != null) {
+                CommandResult result = commandParser.handle(request, client);
+                RespEncoder.encode(result, request.isMultiBulk(), reply);
+                if (result.shouldClose()) {
+                    closing = true;
+                }
+            }
+        } catch (ProtocolException e) {
+            protocolError(e);
+        }
+    }
+
+    private void protocolError(ProtocolException e) {
+        RespEncoder.encode(CommandResult.error("Protocol error: " + e.getMessage()), true, reply);
+        closing = true;
+    }
+
+    private void flush() throws IOException {
+        int pending = reply.size();
+        boolean done = reply.writeTo(channel);
+        commandParser.stats().bytesOut(pending - reply.size());
+        if (done) {
+            if (closing) {
+                close();
+                return;
+            }
+            key.interestOps(SelectionKey.OP_READ);
+        } else {
+            // 소켓 송신 버퍼가 찼으면 쓰기 가능해질 때까지 읽기를 멈춘다
+            key.interestOps(SelectionKey.OP_WRITE);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.server;
+
+import com.common.Log;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+public class NioServer implements Closeable {
+    private final ServerConfig config;
+    private final CommandParser commandParser;
+    private final EventLoop[] eventLoops;
+    private ServerSocketChannel serverChannel;
+    private int nextLoop;
+
+    public NioServer(ServerConfig config, CommandParser commandParser) {
+        this.config = config;
+        this.commandParser = commandParser;
+        this.eventLoops = new EventLoop[config.eventLoopThreads()];
+    }
+
+    public void start() {
+        try {
+            bind();
+            Log.info("MiniRedis Server (nio, %d event loops) started on port %d...",
+                    eventLoops.length, localPort());
+            acceptLoop();
+        } catch (IOException e) {
+            throw new IllegalStateException("Server failed to start", e);
+        } finally {
+            close();
+        }
+    }
+
+    void bind() throws IOException {
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(config.port()), config.backlog());
+
+        for (int i = 0; i < eventLoops.length; i++) {
+            eventLoops[i] = new EventLoop(commandParser, config.greeting());
+            Thread thread = new Thread(eventLoops[i], "nio-event-loop-" + i);
+            thread.start();
+        }
+    }
+
+    int localPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    // accept 는 blocking 으로 받고, 연결은 non-blocking 으로 바꿔 event loop 에 round-robin 으로 넘긴다
+    void acceptLoop() throws IOException {
+        while (!Thread.currentThread().isInterrupted()) {
+            SocketChannel client = serverChannel.accept();
+            client.configureBlocking(false);
+            eventLoops[nextLoop].register(client);
+            nextLoop = (nextLoop + 1) % eventLoops.length;
+        }
+    }
+
+    @Override
+    public void close() {
+        for (EventLoop loop : eventLoops) {
+            if (loop != null) {
+                loop.shutdown();
+            }
+        }
+        if (serverChannel != null) {
+            try {
+                serverChannel.close();
+            } catch (IOException e) {
+                Log.warn("Failed to close server channel: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -1,23 +1,47 @@
 package com.server;
 
+import com.cache.AppendOnlyLog;
+import com.cache.CacheConfig;
 import com.cache.CacheStore;
+import com.cache.SnapshotManager;
+import com.cache.SnapshotScheduler;
+import com.cache.TTLManager;
+import com.common.Log;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.file.Paths;
+import java.util.Locale;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 public class RedisServer {
     private final ServerConfig config;
-    private final ExecutorService clientPool;
     private final CommandParser commandParser;
+    private final TTLManager ttlManager;
+    private final CacheStore<String, String> cacheStore;
+    private final SnapshotManager<String, String> snapshotManager;
+    private final SnapshotScheduler snapshotScheduler;
+    private AppendOnlyLog<String, String> appendLog;
 
     public RedisServer(ServerConfig config) {
         this.config = config;
-        this.clientPool = Executors.newFixedThreadPool(config.workerThreads());
-        CacheStore<String, String> cacheStore = new CacheStore<>();
-        this.commandParser = new CommandParser(cacheStore);
+        Log.setLevel(config.logLevel());
+        this.cacheStore = new CacheStore<>(CacheConfig.builder()
+                .capacity(config.cacheCapacity())
+                .shards(config.cacheShards())
+                .evictionPolicy(config.evictionPolicy())
+                .maxMemory(config.maxMemoryBytes())
+                .storage(config.storage())
+                .build());
+        this.snapshotManager = new SnapshotManager<>(cacheStore, config.snapshotPath(),
+                config.snapshotLoadThreads());
+        this.snapshotScheduler = new SnapshotScheduler(snapshotManager, cacheStore, config.saveRules());
+        this.commandParser = new CommandParser(cacheStore, snapshotManager,
+                new SlowLog(config.slowlogLogSlowerThanMicros(), config.slowlogMaxLen()));
+        this.ttlManager = new TTLManager(cacheStore, config.expirePeriodMillis(), config.expireBudgetMicros());
     }
 
     public static RedisServer createDefault() {
@@ -29,9 +53,82 @@ public class RedisServer {
     }
     
     public void start() {
+        restore();
+        Thread shutdownHook = new Thread(this::shutdown, "shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+        ttlManager.start();
+        if (!config.saveRules().isEmpty()) {
+            snapshotScheduler.start();
+        }
+        try {
+            serve();
+        } finally {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            shutdown();
+        }
+    }
+
+    // snapshot 을 먼저 올리고, 그 이후의 쓰기는 AOF 를 replay 해서 되살린다
+    private void restore() {
+        long started = System.nanoTime();
+        if (config.warmStart()) {
+            snapshotManager.loadSnapshotInBackground(config.warmStartWaitMillis());
+        } else {
+            snapshotManager.loadSnapshot();
+        }
+        // warm start 여도 AOF replay 는 서비스 전에 끝낸다. replay 가 건드리는 segment 만 먼저 올라온다
+        if (config.appendOnly()) {
+            openAppendLog();
+        }
+        if (cacheStore.isLoading()) {
+            Log.info("[startup] ready in %d ms, snapshot still loading in background",
+                    (System.nanoTime() - started) / 1_000_000);
+        } else {
+            Log.info("[startup] restored %d keys in %d ms",
+                    cacheStore.size(), (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    private void openAppendLog() {
+        appendLog = new AppendOnlyLog<>(Paths.get(config.appendOnlyPath()), config.appendFsync());
+        try {
+            appendLog.replay(cacheStore);
+            appendLog.open();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open append only log " + config.appendOnlyPath(), e);
+        }
+        appendLog.enableAutoRewrite(cacheStore, config.aofRewritePercentage(), config.aofRewriteMinSize());
+        cacheStore.setAppendLog(appendLog);
+    }
+
+    private void shutdown() {
+        ttlManager.stop();
+        snapshotScheduler.stop();
+        // save 규칙이 있으면 Redis 처럼 종료 전에 마지막으로 저장한다
+        if (!config.saveRules().isEmpty() && cacheStore.changesSinceSave() > 0) {
+            snapshotManager.saveSnapshot();
+        }
+        if (appendLog != null) {
+            try {
+                appendLog.close();
+            } catch (IOException e) {
+                Log.error("[aof] close error: " + e.getMessage());
+            }
+        }
+        Log.flush();
+    }
+
+    private void serve() {
+        if (config.ioMode() == IoMode.NIO) {
+            new NioServer(config, commandParser).start();
+            return;
+        }
+
+        ExecutorService clientPool = newClientExecutor();
         try (ServerSocket serverSocket = new ServerSocket(config.port(), config.backlog())) {
-            System.out.printf("MiniRedis Server started on port %d...%n", config.port());
-            acceptLoop(serverSocket);
+            Log.info("MiniRedis Server (%s threads) started on port %d...",
+                    config.executorMode().name().toLowerCase(Locale.ROOT), config.port());
+            acceptLoop(serverSocket, clientPool);
         } catch (IOException e) {
             throw new IllegalStateException("Server failed to start", e);
         } finally {
@@ -39,10 +136,25 @@ public class RedisServer {
         }
     }
 
-    private void acceptLoop(ServerSocket serverSocket) throws IOException {
+    private void acceptLoop(ServerSocket serverSocket, ExecutorService clientPool) throws IOException {
         while (!Thread.currentThread().isInterrupted()) {
             Socket client = serverSocket.accept();
-            clientPool.submit(new ClientHandler(client, commandParser));
+            clientPool.submit(new ClientHandler(client, commandParser, config.greeting()));
+        }
+    }
+
+    private ExecutorService newClientExecutor() {
+        if (config.executorMode() == ExecutorMode.VIRTUAL) {
+            // Java 17 로도 빌드되도록 reflection 으로 호출한다.
+            // 저장소는 ReentrantLock 만 쓰고 synchronized 구간이 없어 carrier thread 가 pin 되지 않는다.
+            try {
+                return (ExecutorService) Executors.class
+                        .getMethod("newVirtualThreadPerTaskExecutor")
+                        .invoke(null);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                Log.warn("Virtual threads require Java 21+, falling back to platform threads");
+            }
         }
+        return Executors.newFixedThreadPool(config.workerThreads());
     }
 }
@@ -0,0 +1,99 @@
+package com.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+// 연결별로 재사용하는 응답 버퍼. 필요할 때만 두 배로 늘린다.
+public class ReplyBuffer {
+    private static final byte[] DIGITS = "0123456789".getBytes();
+
+    private ByteBuffer buffer;
+
+    public ReplyBuffer(int initialCapacity) {
+        this.buffer = ByteBuffer.allocate(initialCapacity);
+    }
+
+    public int size() {
+        return buffer.position();
+    }
+
+    public boolean isEmpty() {
+        return buffer.position() == 0;
+    }
+
+    public void write(byte b) {
+        ensureCapacity(1);
+        buffer.put(b);
+    }
+
+    public void write(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        buffer.put(bytes);
+    }
+
+    // ISO-8859-1 범위 문자열을 byte 로 그대로 옮긴다 (RespRequest.argument 와 대칭)
+    public void writeLatin1(String text) {
+        int length = text.length();
+        ensureCapacity(length);
+        for (int i = 0; i < length; i++) {
+            buffer.put((byte) text.charAt(i));
+        }
+    }
+
+    public void writeLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            writeLatin1(Long.toString(value));
+            return;
+        }
+        if (value < 0) {
+            write((byte) '-');
+            value = -value;
+        }
+        // 자릿수만큼 공간을 잡고 뒤에서부터 채운다 (문자열 할당 없음)
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        ensureCapacity(digits);
+        int end = buffer.position() + digits;
+        for (int i = end - 1; i >= buffer.position(); i--) {
+            buffer.put(i, DIGITS[(int) (value % 10)]);
+            value /= 10;
+        }
+        buffer.position(end);
+    }
+
+    public void writeCrlf() {
+        ensureCapacity(2);
+        buffer.put((byte) '\r').put((byte) '\n');
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buffer.array(), buffer.arrayOffset(), buffer.position());
+        buffer.clear();
+    }
+
+    // channel 이 받은 만큼만 내보내고, 남은 데이터가 없으면 true
+    public boolean writeTo(WritableByteChannel channel) throws IOException {
+        buffer.flip();
+        try {
+            channel.write(buffer);
+            return !buffer.hasRemaining();
+        } finally {
+            buffer.compact();
+        }
+    }
+
+    private void ensureCapacity(int extra) {
+        if (buffer.remaining() >= extra) {
+            return;
+        }
+        int required = buffer.position() + extra;
+        ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, required));
+        buffer.flip();
+        larger.put(buffer);
+        buffer = larger;
+    }
+}
@@ -0,0 +1,83 @@
+package com.server;
+
+import java.nio.charset.StandardCharsets;
+
+public final class RespEncoder {
+
+    private RespEncoder() {
+    }
+
+    // resp 가 false 면 기존 텍스트 프로토콜(+VALUE ...) 형식으로 쓴다
+    public static void encode(CommandResult result, boolean resp, ReplyBuffer out) {
+        if (!resp) {
+            writeString(result.response(), out);
+            out.writeCrlf();
+            return;
+        }
+
+        switch (result.type()) {
+            case STATUS -> {
+                out.write((byte) '+');
+                writeString(result.text(), out);
+                out.writeCrlf();
+            }
+            case ERROR -> {
+                out.write((byte) '-');
+                writeString(result.text(), out);
+                out.writeCrlf();
+            }
+            case INTEGER -> {
+                out.write((byte) ':');
+                out.writeLong(result.number());
+                out.writeCrlf();
+            }
+            case BULK -> writeBulk(result.text(), out);
+            case NULL -> {
+                out.write((byte) '$');
+                out.writeLong(-1);
+                out.writeCrlf();
+            }
+            case ARRAY -> {
+                out.write((byte) '*');
+                out.writeLong(result.elements().size());
+                out.writeCrlf();
+                for (CommandResult element : result.elements()) {
+                    encode(element, true, out);
+                }
+            }
+        }
+    }
+
+    private static void writeBulk(String value, ReplyBuffer out) {
+        out.write((byte) '$');
+        if (isLatin1(value)) {
+            out.writeLong(value.length());
+            out.writeCrlf();
+            out.writeLatin1(value);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeLong(bytes.length);
+            out.writeCrlf();
+            out.write(bytes);
+        }
+        out.writeCrlf();
+    }
+
+    // 소켓에서 읽은 값은 항상 ISO-8859-1 범위이고, 그 외(내부에서 만든 문자열)는 UTF-8 로 보낸다
+    private static void writeString(String text, ReplyBuffer out) {
+        if (isLatin1(text)) {
+            out.writeLatin1(text);
+        } else {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static boolean isLatin1(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0xff) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,185 @@
+package com.server;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// RESP2 요청 파서. "*N\r\n$len\r\n..." 형식과 telnet 용 inline 한 줄 명령을 모두 받는다.
+// 요청이 아직 다 도착하지 않았으면 null 을 반환하고 버퍼 position 을 되돌린다.
+public class RespParser {
+    private static final int MAX_INLINE_LENGTH = 64 * 1024;
+    private static final int MAX_BULK_LENGTH = 512 * 1024 * 1024;
+    private static final int MAX_ARGUMENTS = 1024 * 1024;
+    private static final int MAX_BUFFER_SIZE = MAX_BULK_LENGTH + MAX_INLINE_LENGTH;
+    private static final long INCOMPLETE = Long.MIN_VALUE;
+
+    private int cursor;
+
+    public RespRequest parse(ByteBuffer buffer) throws ProtocolException {
+        if (!buffer.hasRemaining()) {
+            return null;
+        }
+
+        int start = buffer.position();
+        RespRequest request = buffer.get(start) == '*'
+                ? parseMultiBulk(buffer, start)
+                : parseInline(buffer, start);
+        if (request != null) {
+            buffer.position(cursor);
+        }
+        return request;
+    }
+
+    // 요청 하나가 버퍼보다 클 때 읽기 버퍼를 두 배로 늘린다 (write 모드 버퍼를 받는다)
+    static ByteBuffer expand(ByteBuffer buffer) throws ProtocolException {
+        if (buffer.capacity() >= MAX_BUFFER_SIZE) {
+            throw new ProtocolException("request too large");
+        }
+        ByteBuffer larger = ByteBuffer.allocate((int) Math.min((long) buffer.capacity() * 2, MAX_BUFFER_SIZE));
+        buffer.flip();
+        larger.put(buffer);
+        return larger;
+    }
+
+    // 큰 요청을 처리하고 남은 데이터가 initialSize 안에 들어가면 처음 크기로 되돌린다 (compact 된 write 모드 버퍼를 받는다)
+    static ByteBuffer shrink(ByteBuffer buffer, int initialSize) {
+        if (buffer.capacity() <= initialSize || buffer.position() > initialSize) {
+            return buffer;
+        }
+        ByteBuffer smaller = ByteBuffer.allocate(initialSize);
+        buffer.flip();
+        smaller.put(buffer);
+        return smaller;
+    }
+
+    private RespRequest parseMultiBulk(ByteBuffer buffer, int start) throws ProtocolException {
+        cursor = start + 1;
+        long count = readNumber(buffer);
+        if (count == INCOMPLETE) {
+            return null;
+        }
+        if (count > MAX_ARGUMENTS) {
+            throw new ProtocolException("invalid multibulk length");
+        }
+        if (count <= 0) {
+            return new RespRequest(buffer, new int[0], new int[0], 0, true);
+        }
+
+        int size = (int) count;
+        int[] offsets = new int[size];
+        int[] lengths = new int[size];
+        for (int i = 0; i < size; i++) {
+            if (cursor >= buffer.limit()) {
+                return null;
+            }
+            byte marker = buffer.get(cursor);
+            if (marker != '$') {
+                throw new ProtocolException("expected '$', got '" + (char) marker + "'");
+            }
+            cursor++;
+
+            long length = readNumber(buffer);
+            if (length == INCOMPLETE) {
+                return null;
+            }
+            if (length < 0 || length > MAX_BULK_LENGTH) {
+                throw new ProtocolException("invalid bulk length");
+            }
+            if (cursor + length + 2 > buffer.limit()) {
+                return null;
+            }
+
+            int end = cursor + (int) length;
+            if (buffer.get(end) != '\r' || buffer.get(end + 1) != '\n') {
+                throw new ProtocolException("bulk string not terminated by CRLF");
+            }
+            offsets[i] = cursor;
+            lengths[i] = (int) length;
+            cursor = end + 2;
+        }
+        return new RespRequest(buffer, offsets, lengths, size, true);
+    }
+
+    private RespRequest parseInline(ByteBuffer buffer, int start) throws ProtocolException {
+        int newline = -1;
+        for (int i = start; i < buffer.limit(); i++) {
+            if (buffer.get(i) == '\n') {
+                newline = i;
+                break;
+            }
+        }
+        if (newline < 0) {
+            if (buffer.limit() - start > MAX_INLINE_LENGTH) {
+                throw new ProtocolException("too big inline request");
+            }
+            return null;
+        }
+
+        int end = newline > start && buffer.get(newline - 1) == '\r' ? newline - 1 : newline;
+        int[] offsets = new int[8];
+        int[] lengths = new int[8];
+        int size = 0;
+
+        // 정규식 없이 공백 기준으로 토큰 위치만 기록
+        int i = start;
+        while (i < end) {
+            while (i < end && isWhitespace(buffer.get(i))) {
+                i++;
+            }
+            if (i >= end) {
+                break;
+            }
+            int tokenStart = i;
+            while (i < end && !isWhitespace(buffer.get(i))) {
+                i++;
+            }
+            if (size == offsets.length) {
+                offsets = Arrays.copyOf(offsets, size * 2);
+                lengths = Arrays.copyOf(lengths, size * 2);
+            }
+            offsets[size] = tokenStart;
+            lengths[size] = i - tokenStart;
+            size++;
+        }
+
+        cursor = newline + 1;
+        return new RespRequest(buffer, offsets, lengths, size, false);
+    }
+
+    // cursor 위치의 "<number>\r\n" 을 읽는다
+    private long readNumber(ByteBuffer buffer) throws ProtocolException {
+        int limit = buffer.limit();
+        int i = cursor;
+        boolean negative = false;
+        if (i < limit && buffer.get(i) == '-') {
+            negative = true;
+            i++;
+        }
+
+        long value = 0;
+        int digits = 0;
+        while (i < limit) {
+            byte b = buffer.get(i);
+            if (b == '\r') {
+                if (i + 1 >= limit) {
+                    return INCOMPLETE;
+                }
+                if (buffer.get(i + 1) != '\n' || digits == 0) {
+                    throw new ProtocolException("invalid length line");
+                }
+                cursor = i + 2;
+                return negative ? -value : value;
+            }
+            if (b < '0' || b > '9' || digits >= 18) {
+                throw new ProtocolException("invalid length line");
+            }
+            value = value * 10 + (b - '0');
+            digits++;
+            i++;
+        }
+        return INCOMPLETE;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+}
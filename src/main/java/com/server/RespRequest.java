@@ -0,0 +1,57 @@
+package com.server;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+// 읽기 버퍼 위의 인자 위치만 기록한다. 버퍼를 compact 하기 전까지만 유효하다.
+public final class RespRequest {
+    private final ByteBuffer buffer;
+    private final int[] offsets;
+    private final int[] lengths;
+    private final int size;
+    private final boolean multiBulk;
+
+    RespRequest(ByteBuffer buffer, int[] offsets, int[] lengths, int size, boolean multiBulk) {
+        this.buffer = buffer;
+        this.offsets = offsets;
+        this.lengths = lengths;
+        this.size = size;
+        this.multiBulk = multiBulk;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // RESP(*N) 로 들어온 요청이면 응답도 RESP 로 인코딩한다
+    public boolean isMultiBulk() {
+        return multiBulk;
+    }
+
+    // 복사 없이 인자 구간만 가리키는 view
+    public ByteBuffer slice(int index) {
+        ByteBuffer view = buffer.duplicate();
+        view.limit(offsets[index] + lengths[index]);
+        view.position(offsets[index]);
+        return view.slice();
+    }
+
+    // ISO-8859-1 은 byte 와 char 가 1:1 로 대응하므로 binary 값도 손실 없이 String 으로 옮겨진다
+    public String argument(int index) {
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + offsets[index], lengths[index],
+                    StandardCharsets.ISO_8859_1);
+        }
+        return StandardCharsets.ISO_8859_1.decode(slice(index)).toString();
+    }
+
+    public List<String> arguments() {
+        String[] arguments = new String[size];
+        for (int i = 0; i < size; i++) {
+            arguments[i] = argument(i);
+        }
+        return Arrays.asList(arguments);
+    }
+}
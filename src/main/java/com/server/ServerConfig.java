@@ -1,23 +1,104 @@
 package com.server;
 
+import com.cache.EvictionPolicyType;
+import com.cache.FsyncPolicy;
+import com.cache.SaveRule;
+import com.cache.StorageType;
+import com.common.Log;
+
 import java.time.Duration;
+import java.util.List;
 
 public class ServerConfig {
     private static final int DEFAULT_PORT = 6379;
     private static final int DEFAULT_BACKLOG = 50;
     private static final int DEFAULT_WORKER_THREADS = 16;
     private static final Duration DEFAULT_SHUTDOWN_TIMEOUT = Duration.ofSeconds(5);
+    private static final int DEFAULT_CACHE_CAPACITY = 10_000;
+    private static final int DEFAULT_CACHE_SHARDS = 1;
+    private static final EvictionPolicyType DEFAULT_EVICTION_POLICY = EvictionPolicyType.LRU;
+    private static final IoMode DEFAULT_IO_MODE = IoMode.BLOCKING;
+    private static final int DEFAULT_EVENT_LOOP_THREADS = Runtime.getRuntime().availableProcessors();
+    private static final ExecutorMode DEFAULT_EXECUTOR_MODE = ExecutorMode.PLATFORM;
+    // RESP 클라이언트는 요청하지 않은 응답을 첫 명령의 응답으로 읽으므로 접속 인사는 --greeting 으로만 켠다
+    private static final boolean DEFAULT_GREETING = false;
+    private static final long DEFAULT_EXPIRE_PERIOD_MILLIS = 100;
+    private static final long DEFAULT_EXPIRE_BUDGET_MICROS = 25_000;
+    private static final long DEFAULT_MAX_MEMORY_BYTES = 0;
+    private static final StorageType DEFAULT_STORAGE = StorageType.HEAP;
+    private static final String DEFAULT_SNAPSHOT_PATH = "cache_snapshot.dat";
+    private static final int DEFAULT_SNAPSHOT_LOAD_THREADS = Runtime.getRuntime().availableProcessors();
+    // 기본은 자동 저장을 하지 않는다 (--save 로 켠다)
+    private static final List<SaveRule> DEFAULT_SAVE_RULES = List.of();
+    private static final boolean DEFAULT_WARM_START = false;
+    private static final long DEFAULT_WARM_START_WAIT_MILLIS = 100;
+    private static final boolean DEFAULT_APPEND_ONLY = false;
+    private static final String DEFAULT_APPEND_ONLY_PATH = "appendonly.aof";
+    private static final FsyncPolicy DEFAULT_APPEND_FSYNC = FsyncPolicy.EVERYSEC;
+    private static final int DEFAULT_AOF_REWRITE_PERCENTAGE = 100;
+    private static final long DEFAULT_AOF_REWRITE_MIN_SIZE = 64L * 1024 * 1024;
+    private static final long DEFAULT_SLOWLOG_LOG_SLOWER_THAN_MICROS = SlowLog.DEFAULT_LOG_SLOWER_THAN_MICROS;
+    private static final int DEFAULT_SLOWLOG_MAX_LEN = SlowLog.DEFAULT_MAX_LEN;
+    private static final Log.Level DEFAULT_LOG_LEVEL = Log.Level.INFO;
 
     private final int port;
     private final int backlog;
     private final int workerThreads;
     private final Duration shutdownTimeout;
+    private final int cacheCapacity;
+    private final int cacheShards;
+    private final EvictionPolicyType evictionPolicy;
+    private final IoMode ioMode;
+    private final int eventLoopThreads;
+    private final ExecutorMode executorMode;
+    private final boolean greeting;
+    private final long expirePeriodMillis;
+    private final long expireBudgetMicros;
+    private final long maxMemoryBytes;
+    private final StorageType storage;
+    private final String snapshotPath;
+    private final int snapshotLoadThreads;
+    private final List<SaveRule> saveRules;
+    private final boolean warmStart;
+    private final long warmStartWaitMillis;
+    private final boolean appendOnly;
+    private final String appendOnlyPath;
+    private final FsyncPolicy appendFsync;
+    private final int aofRewritePercentage;
+    private final long aofRewriteMinSize;
+    private final long slowlogLogSlowerThanMicros;
+    private final int slowlogMaxLen;
+    private final Log.Level logLevel;
 
     private ServerConfig(Builder builder) {
         this.port = builder.port;
         this.backlog = builder.backlog;
         this.workerThreads = builder.workerThreads;
         this.shutdownTimeout = builder.shutdownTimeout;
+        this.cacheCapacity = builder.cacheCapacity;
+        this.cacheShards = builder.cacheShards;
+        this.evictionPolicy = builder.evictionPolicy;
+        this.ioMode = builder.ioMode;
+        this.eventLoopThreads = builder.eventLoopThreads;
+        this.executorMode = builder.executorMode;
+        this.greeting = builder.greeting;
+        this.expirePeriodMillis = builder.expirePeriodMillis;
+        this.expireBudgetMicros = builder.expireBudgetMicros;
+        this.maxMemoryBytes = builder.maxMemoryBytes;
+        this.storage = builder.storage;
+        this.snapshotPath = builder.snapshotPath;
+        this.snapshotLoadThreads = builder.snapshotLoadThreads;
+        this.saveRules = builder.saveRules;
+        this.warmStart = builder.warmStart;
+        this.warmStartWaitMillis = builder.warmStartWaitMillis;
+        this.appendOnly = builder.appendOnly;
+        this.appendOnlyPath = builder.appendOnlyPath;
+        this.appendFsync = builder.appendFsync;
+        this.aofRewritePercentage = builder.aofRewritePercentage;
+        this.aofRewriteMinSize = builder.aofRewriteMinSize;
+        this.slowlogLogSlowerThanMicros = builder.slowlogLogSlowerThanMicros;
+        this.slowlogMaxLen = builder.slowlogMaxLen;
+        this.logLevel = builder.logLevel;
     }
 
     public static Builder builder() {
@@ -25,7 +106,31 @@ public class ServerConfig {
                 .port(DEFAULT_PORT)
                 .backlog(DEFAULT_BACKLOG)
                 .workerThreads(DEFAULT_WORKER_THREADS)
-                .shutdownTimeout(DEFAULT_SHUTDOWN_TIMEOUT);
+                .shutdownTimeout(DEFAULT_SHUTDOWN_TIMEOUT)
+                .cacheCapacity(DEFAULT_CACHE_CAPACITY)
+                .cacheShards(DEFAULT_CACHE_SHARDS)
+                .evictionPolicy(DEFAULT_EVICTION_POLICY)
+                .ioMode(DEFAULT_IO_MODE)
+                .eventLoopThreads(DEFAULT_EVENT_LOOP_THREADS)
+                .executorMode(DEFAULT_EXECUTOR_MODE)
+                .greeting(DEFAULT_GREETING)
+                .expirePeriodMillis(DEFAULT_EXPIRE_PERIOD_MILLIS)
+                .expireBudgetMicros(DEFAULT_EXPIRE_BUDGET_MICROS)
+                .maxMemoryBytes(DEFAULT_MAX_MEMORY_BYTES)
+                .storage(DEFAULT_STORAGE)
+                .snapshotPath(DEFAULT_SNAPSHOT_PATH)
+                .snapshotLoadThreads(DEFAULT_SNAPSHOT_LOAD_THREADS)
+                .saveRules(DEFAULT_SAVE_RULES)
+                .warmStart(DEFAULT_WARM_START)
+                .warmStartWaitMillis(DEFAULT_WARM_START_WAIT_MILLIS)
+                .appendOnly(DEFAULT_APPEND_ONLY)
+                .appendOnlyPath(DEFAULT_APPEND_ONLY_PATH)
+                .appendFsync(DEFAULT_APPEND_FSYNC)
+                .aofRewritePercentage(DEFAULT_AOF_REWRITE_PERCENTAGE)
+                .aofRewriteMinSize(DEFAULT_AOF_REWRITE_MIN_SIZE)
+                .slowlogLogSlowerThanMicros(DEFAULT_SLOWLOG_LOG_SLOWER_THAN_MICROS)
+                .slowlogMaxLen(DEFAULT_SLOWLOG_MAX_LEN)
+                .logLevel(DEFAULT_LOG_LEVEL);
     }
 
     public static ServerConfig defaultConfig() {
@@ -48,11 +153,136 @@ public class ServerConfig {
         return shutdownTimeout;
     }
 
+    public int cacheCapacity() {
+        return cacheCapacity;
+    }
+
+    public int cacheShards() {
+        return cacheShards;
+    }
+
+    public EvictionPolicyType evictionPolicy() {
+        return evictionPolicy;
+    }
+
+    public IoMode ioMode() {
+        return ioMode;
+    }
+
+    public int eventLoopThreads() {
+        return eventLoopThreads;
+    }
+
+    public ExecutorMode executorMode() {
+        return executorMode;
+    }
+
+    public boolean greeting() {
+        return greeting;
+    }
+
+    public long expirePeriodMillis() {
+        return expirePeriodMillis;
+    }
+
+    public long expireBudgetMicros() {
+        return expireBudgetMicros;
+    }
+
+    public long maxMemoryBytes() {
+        return maxMemoryBytes;
+    }
+
+    public StorageType storage() {
+        return storage;
+    }
+
+    public String snapshotPath() {
+        return snapshotPath;
+    }
+
+    public int snapshotLoadThreads() {
+        return snapshotLoadThreads;
+    }
+
+    // 비어 있으면 자동 저장도, 종료 시 저장도 하지 않는다
+    public List<SaveRule> saveRules() {
+        return saveRules;
+    }
+
+    // snapshot 을 백그라운드로 올리면서 바로 요청을 받는다
+    public boolean warmStart() {
+        return warmStart;
+    }
+
+    // warm start 중 아직 안 올라온 키를 기다리는 최대 시간. 넘으면 -LOADING
+    public long warmStartWaitMillis() {
+        return warmStartWaitMillis;
+    }
+
+    public boolean appendOnly() {
+        return appendOnly;
+    }
+
+    public String appendOnlyPath() {
+        return appendOnlyPath;
+    }
+
+    public FsyncPolicy appendFsync() {
+        return appendFsync;
+    }
+
+    // 0 이면 자동 rewrite 를 하지 않는다
+    public int aofRewritePercentage() {
+        return aofRewritePercentage;
+    }
+
+    public long aofRewriteMinSize() {
+        return aofRewriteMinSize;
+    }
+
+    // 이보다 오래 걸린 명령을 SLOWLOG 에 남긴다 (음수면 끔, 0 이면 전부)
+    public long slowlogLogSlowerThanMicros() {
+        return slowlogLogSlowerThanMicros;
+    }
+
+    public int slowlogMaxLen() {
+        return slowlogMaxLen;
+    }
+
+    public Log.Level logLevel() {
+        return logLevel;
+    }
+
     public static final class Builder {
         private int port = DEFAULT_PORT;
         private int backlog = DEFAULT_BACKLOG;
         private int workerThreads = DEFAULT_WORKER_THREADS;
         private Duration shutdownTimeout = DEFAULT_SHUTDOWN_TIMEOUT;
+        private int cacheCapacity = DEFAULT_CACHE_CAPACITY;
+        private int cacheShards = DEFAULT_CACHE_SHARDS;
+        private EvictionPolicyType evictionPolicy = DEFAULT_EVICTION_POLICY;
+        private IoMode ioMode = DEFAULT_IO_MODE;
+        private int eventLoopThreads = DEFAULT_EVENT_LOOP_THREADS;
+        private ExecutorMode executorMode = DEFAULT_EXECUTOR_MODE;
+        private boolean greeting = DEFAULT_GREETING;
+        private long expirePeriodMillis = DEFAULT_EXPIRE_PERIOD_MILLIS;
+        private long expireBudgetMicros = DEFAULT_EXPIRE_BUDGET_MICROS;
+        private long maxMemoryBytes = DEFAULT_MAX_MEMORY_BYTES;
+        private StorageType storage = DEFAULT_STORAGE;
+        private String snapshotPath = DEFAULT_SNAPSHOT_PATH;
+        private int snapshotLoadThreads = DEFAULT_SNAPSHOT_LOAD_THREADS;
+        private List<SaveRule> saveRules = DEFAULT_SAVE_RULES;
+        private boolean warmStart = DEFAULT_WARM_START;
+        private long warmStartWaitMillis = DEFAULT_WARM_START_WAIT_MILLIS;
+        private boolean appendOnly = DEFAULT_APPEND_ONLY;
+        private String appendOnlyPath = DEFAULT_APPEND_ONLY_PATH;
+        private FsyncPolicy appendFsync = DEFAULT_APPEND_FSYNC;
+        private int aofRewritePercentage = DEFAULT_AOF_REWRITE_PERCENTAGE;
+        private long aofRewriteMinSize = DEFAULT_AOF_REWRITE_MIN_SIZE;
+        private long slowlogLogSlowerThanMicros = DEFAULT_SLOWLOG_LOG_SLOWER_THAN_MICROS;
+        private int slowlogMaxLen = DEFAULT_SLOWLOG_MAX_LEN;
+        private Log.Level logLevel = DEFAULT_LOG_LEVEL;
 
         private Builder() {
         }
@@ -77,6 +307,126 @@ public class ServerConfig {
             return this;
         }
 
+        public Builder cacheCapacity(int cacheCapacity) {
+            this.cacheCapacity = cacheCapacity;
+            return this;
+        }
+
+        public Builder cacheShards(int cacheShards) {
+            this.cacheShards = cacheShards;
+            return this;
+        }
+
+        public Builder evictionPolicy(EvictionPolicyType evictionPolicy) {
+            this.evictionPolicy = evictionPolicy;
+            return this;
+        }
+
+        public Builder ioMode(IoMode ioMode) {
+            this.ioMode = ioMode;
+            return this;
+        }
+
+        public Builder eventLoopThreads(int eventLoopThreads) {
+            this.eventLoopThreads = eventLoopThreads;
+            return this;
+        }
+
+        public Builder executorMode(ExecutorMode executorMode) {
+            this.executorMode = executorMode;
+            return this;
+        }
+
+        public Builder greeting(boolean greeting) {
+            this.greeting = greeting;
+            return this;
+        }
+
+        public Builder expirePeriodMillis(long expirePeriodMillis) {
+            this.expirePeriodMillis = expirePeriodMillis;
+            return this;
+        }
+
+        public Builder expireBudgetMicros(long expireBudgetMicros) {
+            this.expireBudgetMicros = expireBudgetMicros;
+            return this;
+        }
+
+        public Builder maxMemoryBytes(long maxMemoryBytes) {
+            this.maxMemoryBytes = maxMemoryBytes;
+            return this;
+        }
+
+        public Builder storage(StorageType storage) {
+            this.storage = storage;
+            return this;
+        }
+
+        public Builder snapshotPath(String snapshotPath) {
+            this.snapshotPath = snapshotPath;
+            return this;
+        }
+
+        public Builder snapshotLoadThreads(int snapshotLoadThreads) {
+            this.snapshotLoadThreads = snapshotLoadThreads;
+            return this;
+        }
+
+        public Builder saveRules(List<SaveRule> saveRules) {
+            this.saveRules = List.copyOf(saveRules);
+            return this;
+        }
+
+        public Builder warmStart(boolean warmStart) {
+            this.warmStart = warmStart;
+            return this;
+        }
+
+        public Builder warmStartWaitMillis(long warmStartWaitMillis) {
+            this.warmStartWaitMillis = warmStartWaitMillis;
+            return this;
+        }
+
+        public Builder appendOnly(boolean appendOnly) {
+            this.appendOnly = appendOnly;
+            return this;
+        }
+
+        public Builder appendOnlyPath(String appendOnlyPath) {
+            this.appendOnlyPath = appendOnlyPath;
+            return this;
+        }
+
+        public Builder appendFsync(FsyncPolicy appendFsync) {
+            this.appendFsync = appendFsync;
+            return this;
+        }
+
+        public Builder aofRewritePercentage(int aofRewritePercentage) {
+            this.aofRewritePercentage = aofRewritePercentage;
+            return this;
+        }
+
+        public Builder aofRewriteMinSize(long aofRewriteMinSize) {
+            this.aofRewriteMinSize = aofRewriteMinSize;
+            return this;
+        }
+
+        public Builder slowlogLogSlowerThanMicros(long slowlogLogSlowerThanMicros) {
+            this.slowlogLogSlowerThanMicros = slowlogLogSlowerThanMicros;
+            return this;
+        }
+
+        public Builder slowlogMaxLen(int slowlogMaxLen) {
+            this.slowlogMaxLen = slowlogMaxLen;
+            return this;
+        }
+
+        public Builder logLevel(Log.Level logLevel) {
+            this.logLevel = logLevel;
+            return this;
+        }
+
         public ServerConfig build() {
             return new ServerConfig(this);
         }
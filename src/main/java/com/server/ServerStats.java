@@ -0,0 +1,134 @@
+package com.server;
+
+import com.common.LatencyHistogram;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// INFO / LATENCY 가 보여 주는 서버 통계.
+// 명령별 항목은 처음에 모두 만들어 두고 조회만 하므로, 기록할 때 lock 도 할당도 없다 (LongAdder + LatencyHistogram).
+public class ServerStats {
+    private final Map<String, CommandStats> commands;
+    private final long startMillis = System.currentTimeMillis();
+
+    private final LongAdder totalCommands = new LongAdder();
+    private final LongAdder errorReplies = new LongAdder();
+    private final LongAdder unknownCommands = new LongAdder();
+    private final LongAdder totalConnections = new LongAdder();
+    private final LongAdder connectedClients = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+
+    public ServerStats(Collection<String> commandNames) {
+        Map<String, CommandStats> map = new LinkedHashMap<>();
+        for (String name : commandNames) {
+            map.put(name, new CommandStats(name));
+        }
+        this.commands = Collections.unmodifiableMap(map);
+    }
+
+    // 모르는 명령이면 null
+    CommandStats command(String name) {
+        return commands.get(name);
+    }
+
+    Collection<CommandStats> commands() {
+        return commands.values();
+    }
+
+    void recordCommand(CommandStats command, long nanos, boolean failed) {
+        totalCommands.increment();
+        if (failed) {
+            errorReplies.increment();
+        }
+        if (command == null) {
+            unknownCommands.increment();
+            return;
+        }
+        command.calls.increment();
+        command.latency.record(nanos);
+        if (failed) {
+            command.failedCalls.increment();
+        }
+    }
+
+    void clientConnected() {
+        totalConnections.increment();
+        connectedClients.increment();
+    }
+
+    void clientDisconnected() {
+        connectedClients.decrement();
+    }
+
+    void bytesIn(long bytes) {
+        bytesIn.add(bytes);
+    }
+
+    void bytesOut(long bytes) {
+        bytesOut.add(bytes);
+    }
+
+    public long uptimeMillis() {
+        return System.currentTimeMillis() - startMillis;
+    }
+
+    public long totalCommands() {
+        return totalCommands.sum();
+    }
+
+    public long errorReplies() {
+        return errorReplies.sum();
+    }
+
+    public long unknownCommands() {
+        return unknownCommands.sum();
+    }
+
+    public long totalConnections() {
+        return totalConnections.sum();
+    }
+
+    public long connectedClients() {
+        return connectedClients.sum();
+    }
+
+    public long bytesIn() {
+        return bytesIn.sum();
+    }
+
+    public long bytesOut() {
+        return bytesOut.sum();
+    }
+
+    public static final class CommandStats {
+        private final String name;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder failedCalls = new LongAdder();
+        // dispatch 에 걸린 시간 (파싱/응답 인코딩/네트워크 제외)
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        private CommandStats(String name) {
+            this.name = name;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public long calls() {
+            return calls.sum();
+        }
+
+        public long failedCalls() {
+            return failedCalls.sum();
+        }
+
+        public LatencyHistogram latency() {
+            return latency;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// 실행 시간이 threshold 를 넘은 명령을 최근 maxLen 개까지 남기는 ring buffer (Redis SLOWLOG).
+// 쓰는 쪽은 id 를 getAndIncrement 로 받아 id % maxLen 칸에 넣기만 하므로 lock 이 없다.
+// 읽는 쪽은 칸의 id 를 확인해 덮어써진 항목을 거른다.
+public class SlowLog {
+    public static final long DEFAULT_LOG_SLOWER_THAN_MICROS = 10_000;
+    public static final int DEFAULT_MAX_LEN = 128;
+
+    // Redis 와 같은 인자 수/길이 제한
+    private static final int MAX_ARGUMENTS = 32;
+    private static final int MAX_ARGUMENT_LENGTH = 128;
+
+    private final long thresholdNanos;
+    private final AtomicReferenceArray<Entry> slots;
+    private final AtomicLong nextId = new AtomicLong();
+    // RESET 시점의 nextId. 그 앞의 항목은 보이지 않는다
+    private volatile long firstVisibleId;
+
+    public SlowLog() {
+        this(DEFAULT_LOG_SLOWER_THAN_MICROS, DEFAULT_MAX_LEN);
+    }
+
+    // logSlowerThanMicros 가 음수면 기록하지 않고, 0 이면 모든 명령을 기록한다.
+    // nanos 로 바꾸다 넘치는 큰 값은 Long.MAX_VALUE 로 둔다 (사실상 기록하지 않음)
+    public SlowLog(long logSlowerThanMicros, int maxLen) {
+        if (maxLen <= 0) {
+            throw new IllegalArgumentException("slowlog max length must be positive.");
+        }
+        this.thresholdNanos = logSlowerThanMicros < 0 || logSlowerThanMicros > Long.MAX_VALUE / 1_000
+                ? Long.MAX_VALUE
+                : logSlowerThanMicros * 1_000;
+        this.slots = new AtomicReferenceArray<>(maxLen);
+    }
+
+    boolean isSlow(long nanos) {
+        return nanos >= thresholdNanos;
+    }
+
+    void add(List<String> arguments, long nanos, String client) {
+        long id = nextId.getAndIncrement();
+        Entry entry = new Entry(id, System.currentTimeMillis() / 1_000, nanos / 1_000, truncate(arguments),
+                client != null ? client : "");
+        slots.set((int) (id % slots.length()), entry);
+    }
+
+    // 최근 것부터 최대 count 개 (음수면 전부)
+    public List<Entry> entries(int count) {
+        long last = nextId.get() - 1;
+        long first = Math.max(firstVisibleId, last - slots.length() + 1);
+        int limit = count < 0 ? slots.length() : count;
+        List<Entry> entries = new ArrayList<>();
+        for (long id = last; id >= first && entries.size() < limit; id--) {
+            Entry entry = slots.get((int) (id % slots.length()));
+            // 아직 쓰는 중이거나 그 사이 더 새 항목으로 덮어써진 칸은 건너뛴다
+            if (entry != null && entry.id() == id) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    public int size() {
+        long visible = nextId.get() - firstVisibleId;
+        return (int) Math.min(visible, slots.length());
+    }
+
+    public void reset() {
+        firstVisibleId = nextId.get();
+    }
+
+    private static List<String> truncate(List<String> arguments) {
+        int kept = arguments.size() > MAX_ARGUMENTS ? MAX_ARGUMENTS - 1 : arguments.size();
+        List<String> truncated = new ArrayList<>(kept + 1);
+        for (int i = 0; i < kept; i++) {
+            String argument = arguments.get(i);
+            if (argument.length() > MAX_ARGUMENT_LENGTH) {
+                argument = argument.substring(0, MAX_ARGUMENT_LENGTH)
+                        + "... (" + (argument.length() - MAX_ARGUMENT_LENGTH) + " more bytes)";
+            }
+            truncated.add(argument);
+        }
+        if (kept < arguments.size()) {
+            truncated.add("... (" + (arguments.size() - kept) + " more arguments)");
+        }
+        return truncated;
+    }
+
+    public record Entry(long id, long timestampSeconds, long durationMicros, List<String> arguments, String client) {
+    }
+}
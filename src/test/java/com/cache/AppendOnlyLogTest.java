@@ -0,0 +1,276 @@
+package com.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.common.ManualClock;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+class AppendOnlyLogTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("SET/MSET/DEL 이 로그에 남고 재시작 시 replay 로 복원되는지 확인")
+    void testReplayRestoresWrites() throws IOException {
+        Path file = dir.resolve("appendonly.aof");
+        CacheStore<String, String> store = new CacheStore<>();
+        AppendOnlyLog<String, String> log = open(file, FsyncPolicy.EVERYSEC, store);
+
+        store.set("a", "1");
+        store.set("b", "2", 60_000);
+        Map<String, String> values = new LinkedHashMap<>();
+        values.put("c", "3");
+        values.put("d", "4");
+        store.setAll(values);
+        store.set("a", "overwritten");
+        store.del("c");
+        store.del("missing");
+        log.close();
+
+        CacheStore<String, String> restored = new CacheStore<>();
+        assertEquals(6, new AppendOnlyLog<String, String>(file, FsyncPolicy.EVERYSEC).replay(restored));
+
+        assertEquals("overwritten", restored.get("a"));
+        assertEquals("2", restored.get("b"));
+        assertTrue(restored.ttl("b") > 0);
+        assertNull(restored.get("c"));
+        assertEquals("4", restored.get("d"));
+    }
+
+    @Test
+    @DisplayName("로그에 남은 만료 시각이 replay 시점에 이미 지났으면 키가 복원되지 않는지 확인")
+    void testExpiredRecordsAreNotRestored() throws IOException {
+        Path file = dir.resolve("appendonly.aof");
+        ManualClock clock = new ManualClock();
+        CacheStore<String, String> store = new CacheStore<>(CacheConfig.builder().clock(clock).build());
+        AppendOnlyLog<String, String> log = open(file, FsyncPolicy.NO, store);
+        store.set("short", "v", 1_000);
+        store.set("long", "v", 60_000);
+        log.close();
+
+        clock.advance(5_000);
+        CacheStore<String, String> restored = new CacheStore<>(CacheConfig.builder().clock(clock).build());
+        new AppendOnlyLog<String, String>(file, FsyncPolicy.NO).replay(restored);
+
+        assertNull(restored.get("short"));
+        assertEquals("v", restored.get("long"));
+    }
+
+    @Test
+    @DisplayName("마지막 record 가 잘린 로그는 그 앞까지만 적용하고 파일을 잘라내는지 확인")
+    void testTruncatedTailIsDropped() throws IOException {
+        Path file = dir.resolve("appendonly.aof");
+        CacheStore<String, String> store = new CacheStore<>();
+        AppendOnlyLog<String, String> log = open(file, FsyncPolicy.ALWAYS, store);
+        store.set("a", "1");
+        store.set("b", "2");
+        log.close();
+
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+
+        CacheStore<String, String> restored = new CacheStore<>();
+        AppendOnlyLog<String, String> reopened = new AppendOnlyLog<>(file, FsyncPolicy.ALWAYS);
+        assertEquals(1, reopened.replay(restored));
+        assertEquals("1", restored.get("a"));
+        assertNull(restored.get("b"));
+
+        // 잘라낸 뒤에는 이어서 쓴 record 도 정상적으로 읽힌다
+        reopened.open();
+        restored.setAppendLog(reopened);
+        restored.set("c", "3");
+        reopened.close();
+
+        CacheStore<String, String> again = new CacheStore<>();
+        assertEquals(2, new AppendOnlyLog<String, String>(file, FsyncPolicy.ALWAYS).replay(again));
+        assertEquals("3", again.get("c"));
+    }
+
+    @Test
+    @DisplayName("중간 record 가 깨진 로그는 잘라내지 않고 replay 를 실패시키는지 확인")
+    void testCorruptRecordInTheMiddleFailsReplay() throws IOException {
+        Path file = dir.resolve("appendonly.aof");
+        CacheStore<String, String> store = new CacheStore<>();
+        AppendOnlyLog<String, String> log = open(file, FsyncPolicy.ALWAYS, store);
+        store.set("a", "1");
+        long secondRecord = Files.size(file);
+        store.set("b", "2");
+        store.set("c", "3");
+        log.close();
+
+        // 두 번째 record 의 만료 시각 부분을 바꿔 checksum 만 틀리게 한다
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[(int) secondRecord + 20] ^= 0x7f;
+        Files.write(file, bytes);
+
+        CacheStore<String, String> restored = new CacheStore<>();
+        AppendOnlyLog<String, String> reopened = new AppendOnlyLog<>(file, FsyncPolicy.ALWAYS);
+        SnapshotFormatException e = assertThrows(SnapshotFormatException.class, () -> reopened.replay(restored));
+        assertTrue(e.getMessage().contains("offset " + secondRecord), e.getMessage());
+        assertEquals(bytes.length, Files.size(file));
+    }
+
+    @Test
+    @DisplayName("ALWAYS 정책에서 동시에 쓰는 요청들이 fsync 를 나눠 쓰는지 확인 (group commit)")
+    void testGroupCommitSharesForce() throws Exception {
+        Path file = dir.resolve("appendonly.aof");
+        CacheStore<String, String> store = new CacheStore<>(100_000, 8);
+        AppendOnlyLog<String, String> log = open(file, FsyncPolicy.ALWAYS, store);
+
+        int threads = 16;
+        int perThread = 200;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    store.set("t" + id + ":" + i, "v");
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+        long forces = log.forceCount();
+        log.close();
+
+        assertTrue(forces < threads * perThread, "forces=" + forces);
+        CacheStore<String, String> restored = new CacheStore<>(100_000, 8);
+        assertEquals(threads * perThread, new AppendOnlyLog<String, String>(file, FsyncPolicy.ALWAYS).replay(restored));
+    }
+
+    @Test
+    @DisplayName("rewrite 후 로그가 현재 내용만 남도록 줄어들고 replay 결과는 같은지 확인")
+    void testRewriteCompactsLog() throws Exception {
+        Path file = dir.resolve("appendonly.aof");
+        CacheStore<String, String> store = new CacheStore<>(10_000, 4);
+        AppendOnlyLog<String, String> log = open(file, FsyncPolicy.EVERYSEC, store);
+        for (int i = 0; i < 1_000; i++) {
+            store.set("k" + (i % 10), "v" + i);
+        }
+        store.del("k0");
+
+        assertEquals(9, log.rewriteInBackground(store).get(10, TimeUnit.SECONDS));
+        store.set("after", "rewrite");
+        log.close();
+
+        assertEquals(1, log.rewrites());
+        assertFalse(Files.exists(dir.resolve("appendonly.aof.rewrite")));
+        CacheStore<String, String> restored = new CacheStore<>(10_000, 4);
+        assertEquals(10, new AppendOnlyLog<String, String>(file, FsyncPolicy.EVERYSEC).replay(restored));
+        assertNull(restored.get("k0"));
+        assertEquals("v999", restored.get("k9"));
+        assertEquals("rewrite", restored.get("after"));
+    }
+
+    @Test
+    @DisplayName("rewrite 도중 들어온 쓰기가 교체된 로그에 빠짐없이 남는지 확인")
+    void testWritesDuringRewriteAreKept() throws Exception {
+        Path file = dir.resolve("appendonly.aof");
+        CacheStore<String, String> store = new CacheStore<>(100_000, 8);
+        AppendOnlyLog<String, String> log = open(file, FsyncPolicy.NO, store);
+        for (int i = 0; i < 20_000; i++) {
+            store.set("base" + i, "v");
+        }
+
+        CompletableFuture<Long> rewrite = log.rewriteInBackground(store);
+        int written = 0;
+        while (!rewrite.isDone() || written < 1_000) {
+            store.set("live" + written, "v" + written);
+            if (written % 3 == 0) {
+                store.del("base" + written);
+            }
+            written++;
+        }
+        rewrite.get(10, TimeUnit.SECONDS);
+        log.close();
+
+        CacheStore<String, String> restored = new CacheStore<>(100_000, 8);
+        new AppendOnlyLog<String, String>(file, FsyncPolicy.NO).replay(restored);
+        assertEquals(store.size(), restored.size());
+        for (int i = 0; i < written; i++) {
+            assertEquals("v" + i, restored.get("live" + i));
+            assertEquals(i % 3 == 0 ? null : "v", restored.get("base" + i));
+        }
+    }
+
+    @Test
+    @DisplayName("로그가 기준 크기보다 설정한 비율 이상 커지면 자동으로 rewrite 되는지 확인")
+    void testAutoRewriteOnGrowth() throws Exception {
+        Path file = dir.resolve("appendonly.aof");
+        CacheStore<String, String> store = new CacheStore<>();
+        AppendOnlyLog<String, String> log = open(file, FsyncPolicy.NO, store);
+        log.enableAutoRewrite(store, 100, 4 * 1024);
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        int i = 0;
+        while (log.rewrites() == 0 && System.currentTimeMillis() < deadline) {
+            store.set("same", "value" + i++);
+        }
+        log.close();
+
+        assertTrue(log.rewrites() > 0);
+        CacheStore<String, String> restored = new CacheStore<>();
+        new AppendOnlyLog<String, String>(file, FsyncPolicy.NO).replay(restored);
+        assertEquals("value" + (i - 1), restored.get("same"));
+    }
+
+    @Test
+    @DisplayName("로그 쓰기가 실패하면 그 쓰기는 오류로 끝나고 이후 쓰기는 메모리를 바꾸지 않고 거절되는지 확인")
+    void testWritesAreRefusedAfterWriteFailure() throws IOException {
+        Path file = dir.resolve("appendonly.aof");
+        List<FileChannel> opened = new ArrayList<>();
+        AppendOnlyLog<String, String> log = new AppendOnlyLog<>(file, FsyncPolicy.ALWAYS) {
+            @Override
+            FileChannel openChannel() throws IOException {
+                FileChannel channel = super.openChannel();
+                opened.add(channel);
+                return channel;
+            }
+        };
+        CacheStore<String, String> store = new CacheStore<>();
+        log.open();
+        store.setAppendLog(log);
+        store.set("a", "1");
+
+        // 디스크 오류 대신 writer 가 쓰는 channel 을 닫아 다음 write 를 실패시킨다
+        opened.get(0).close();
+        assertThrows(AppendOnlyLogException.class, () -> store.set("b", "2"));
+
+        assertThrows(AppendOnlyLogException.class, () -> store.set("c", "3"));
+        assertThrows(AppendOnlyLogException.class, () -> store.del("a"));
+        assertThrows(AppendOnlyLogException.class, () -> store.setAll(Map.of("d", "4")));
+        assertNull(store.get("c"));
+        assertNull(store.get("d"));
+        assertEquals("1", store.get("a"));
+        log.close();
+    }
+
+    private static AppendOnlyLog<String, String> open(Path file, FsyncPolicy policy, CacheStore<String, String> store)
+            throws IOException {
+        AppendOnlyLog<String, String> log = new AppendOnlyLog<>(file, policy);
+        log.open();
+        store.setAppendLog(log);
+        return log;
+    }
+}
@@ -1,10 +1,16 @@
 package com.cache;
 
 import static org.junit.jupiter.api.Assertions.*;
+import com.common.ManualClock;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 class CacheStoreTest {
 
     private CacheStore<String, String> store;
@@ -98,4 +104,189 @@ class CacheStoreTest {
         assertNotNull(store.get("k5"));
     }
 
-}
\ No newline at end of file
+    @Test
+    @DisplayName("Sharding: 키가 여러 shard 에 나뉘어도 정상 조회/삭제되는지 확인")
+    void testShardedSetGetDelete() {
+        CacheStore<String, String> sharded = new CacheStore<>(1000, 8);
+        assertEquals(8, sharded.shardCount());
+
+        for (int i = 0; i < 100; i++) {
+            sharded.set("key" + i, "value" + i);
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals("value" + i, sharded.get("key" + i));
+        }
+
+        assertTrue(sharded.del("key0"));
+        assertFalse(sharded.del("key0"));
+        assertNull(sharded.get("key0"));
+        assertEquals(99, sharded.entries().size());
+    }
+
+    @Test
+    @DisplayName("Sharding: 전체 용량이 shard 에 나뉘어 총 키 수가 용량을 넘지 않는지 확인")
+    void testShardedCapacityIsSplit() {
+        CacheStore<String, String> sharded = new CacheStore<>(64, 4);
+
+        for (int i = 0; i < 1000; i++) {
+            sharded.set("key" + i, "value" + i);
+        }
+
+        assertTrue(sharded.entries().size() <= 64);
+    }
+
+    @Test
+    @DisplayName("Sharding: 여러 스레드가 동시에 SET/GET 해도 값이 유실되지 않는지 확인")
+    void testShardedConcurrentAccess() throws InterruptedException {
+        CacheStore<String, String> sharded = new CacheStore<>(10_000, 16);
+        Thread[] threads = new Thread[8];
+
+        for (int t = 0; t < threads.length; t++) {
+            int id = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    String key = "t" + id + ":" + i;
+                    sharded.set(key, key);
+                    assertEquals(key, sharded.get(key));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(4000, sharded.entries().size());
+    }
+
+    @Test
+    @DisplayName("Sharding: shard 수가 용량보다 크면 예외 발생")
+    void testInvalidShardCount() {
+        assertThrows(IllegalArgumentException.class, () -> new CacheStore<String, String>(4, 8));
+    }
+
+    @Test
+    @DisplayName("Batch: 여러 shard 에 걸친 setAll/getAll/delAll 이 키 순서대로 동작하는지 확인")
+    void testBatchOperationsAcrossShards() {
+        CacheStore<String, String> sharded = new CacheStore<>(1000, 8);
+        Map<String, String> values = new LinkedHashMap<>();
+        for (int i = 0; i < 50; i++) {
+            values.put("key" + i, "value" + i);
+        }
+
+        sharded.setAll(values);
+
+        List<String> keys = new ArrayList<>(values.keySet());
+        keys.add(3, "missing");
+        List<String> fetched = sharded.getAll(keys);
+        assertEquals(51, fetched.size());
+        assertNull(fetched.get(3));
+        assertEquals("value0", fetched.get(0));
+        assertEquals("value49", fetched.get(50));
+
+        assertEquals(50, sharded.delAll(keys));
+        assertTrue(sharded.entries().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Batch: setAll 도 용량을 넘으면 LRU eviction 이 일어나는지 확인")
+    void testSetAllEvicts() {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (int i = 1; i <= 6; i++) {
+            values.put("k" + i, "v" + i);
+        }
+
+        store.setAll(values);
+
+        assertEquals(4, store.entries().size());
+        assertNull(store.get("k1"));
+        assertNull(store.get("k2"));
+        assertEquals("v6", store.get("k6"));
+    }
+
+    @Test
+    @DisplayName("Memory: 사용량이 maxmemory 를 넘으면 오래된 키부터 eviction 되는지 확인")
+    void testMaxMemoryEvictsOldestKeys() {
+        String value = "x".repeat(1000);
+        long perEntry = MemoryEstimator.estimate("k0", new CacheEntry<>(value, -1));
+        CacheStore<String, String> limited = new CacheStore<>(CacheConfig.builder()
+                .capacity(1000)
+                .maxMemory(perEntry * 3)
+                .build());
+
+        for (int i = 0; i < 5; i++) {
+            limited.set("k" + i, value);
+        }
+
+        assertEquals(3, limited.size());
+        assertNull(limited.get("k0"));
+        assertNull(limited.get("k1"));
+        assertEquals(value, limited.get("k4"));
+        assertTrue(limited.usedMemory() <= limited.maxMemory());
+        assertEquals(2, limited.evictedKeys());
+    }
+
+    @Test
+    @DisplayName("Memory: 덮어쓰기/삭제/만료 시 사용량이 다시 줄어드는지 확인")
+    void testUsedMemoryTracksOverwriteAndDelete() {
+        store.set("a", "x".repeat(100));
+        long big = store.usedMemory();
+        assertEquals(big, store.memoryUsage("a"));
+
+        store.set("a", "x");
+        assertTrue(store.usedMemory() < big);
+        assertEquals(store.memoryUsage("a"), store.usedMemory());
+
+        store.del("a");
+        assertEquals(0, store.usedMemory());
+        assertEquals(-1, store.memoryUsage("a"));
+    }
+
+    @Test
+    @DisplayName("Memory: shard 한도보다 큰 값은 거절되고 기존 값은 유지되는지 확인")
+    void testOversizedValueRejected() {
+        CacheStore<String, String> limited = new CacheStore<>(CacheConfig.builder()
+                .maxMemory(1024)
+                .build());
+        limited.set("a", "small");
+
+        assertThrows(MaxMemoryExceededException.class, () -> limited.set("a", "x".repeat(2048)));
+        assertEquals("small", limited.get("a"));
+    }
+
+    @Test
+    @DisplayName("Dirty: 실제로 바뀐 키만 마지막 저장 이후 변경 수에 더해지는지 확인")
+    void testChangesSinceSaveCountsWrites() {
+        store.set("a", "1");
+        Map<String, String> values = new LinkedHashMap<>();
+        values.put("b", "2");
+        values.put("c", "3");
+        store.setAll(values);
+        store.del("a");
+        store.del("missing");
+        store.get("b");
+
+        assertEquals(4, store.changesSinceSave());
+        store.markSaved(3);
+        assertEquals(1, store.changesSinceSave());
+    }
+
+    @Test
+    @DisplayName("통계: get/getAll 의 hit/miss 와 active expire 로 지운 키 수를 세는지 확인")
+    void testKeyspaceAndExpiredCounters() {
+        ManualClock clock = new ManualClock(1_000);
+        CacheStore<String, String> store = new CacheStore<>(CacheConfig.builder().capacity(10).clock(clock).build());
+        store.set("a", "1");
+        store.set("ttl", "2", 100);
+
+        store.get("a");
+        store.get("missing");
+        store.getAll(List.of("a", "ttl", "missing"));
+        assertEquals(3, store.keyspaceHits());
+        assertEquals(2, store.keyspaceMisses());
+
+        clock.advance(200);
+        store.expireDue();
+        assertEquals(1, store.expiredKeys());
+    }
+}
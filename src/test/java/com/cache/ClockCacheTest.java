@@ -0,0 +1,81 @@
+package com.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class ClockCacheTest {
+
+    @Test
+    @DisplayName("용량 이하에서는 eviction 대상이 없는지 확인")
+    void testNoEvictionUnderCapacity() {
+        ClockCache<String> clock = new ClockCache<>(3);
+        clock.recordAccess("a");
+        clock.recordAccess("b");
+        clock.recordAccess("c");
+
+        assertNull(clock.findEvictionTarget());
+    }
+
+    @Test
+    @DisplayName("reference bit 가 세워진 키는 한 번 더 기회를 받는지 확인")
+    void testReferencedKeyGetsSecondChance() {
+        ClockCache<String> clock = new ClockCache<>(3);
+        clock.recordAccess("a");
+        clock.recordAccess("b");
+        clock.recordAccess("c");
+
+        clock.recordHit("a");
+        clock.recordAccess("d");
+
+        assertEquals("b", clock.findEvictionTarget());
+    }
+
+    @Test
+    @DisplayName("recordHit 은 없는 키를 추가하지 않는지 확인")
+    void testHitDoesNotInsert() {
+        ClockCache<String> clock = new ClockCache<>(1);
+        clock.recordHit("ghost");
+
+        assertTrue(clock.getKeysInAccessOrder().isEmpty());
+    }
+
+    @Test
+    @DisplayName("삭제 후 남은 키로 순서가 복원되는지 확인")
+    void testRemoveAndRestore() {
+        ClockCache<String> clock = new ClockCache<>(3);
+        clock.recordAccess("a");
+        clock.recordAccess("b");
+        clock.recordAccess("c");
+        clock.remove("a");
+
+        assertEquals(2, clock.getKeysInAccessOrder().size());
+
+        clock.restoreOrder(List.of("x", "y", "z", "w"));
+        assertEquals("x", clock.findEvictionTarget());
+    }
+
+    @Test
+    @DisplayName("CLOCK 정책을 사용하는 CacheStore 에서 자주 조회한 키가 살아남는지 확인")
+    void testCacheStoreWithClockPolicy() {
+        CacheStore<String, String> store = new CacheStore<>(CacheConfig.builder()
+                .capacity(4)
+                .evictionPolicy(EvictionPolicyType.CLOCK)
+                .build());
+
+        store.set("k1", "v1");
+        store.set("k2", "v2");
+        store.set("k3", "v3");
+        store.set("k4", "v4");
+        store.get("k1");
+
+        store.set("k5", "v5");
+
+        assertNotNull(store.get("k1"));
+        assertNull(store.get("k2"));
+        assertEquals(4, store.entries().size());
+    }
+}
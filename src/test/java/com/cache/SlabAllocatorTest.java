@@ -0,0 +1,114 @@
+package com.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+class SlabAllocatorTest {
+
+    @Test
+    @DisplayName("요청 크기 이상인 가장 작은 size class 의 chunk 가 할당되는지 확인")
+    void testSizeClasses() {
+        SlabAllocator slabs = new SlabAllocator();
+
+        assertEquals(64, slabs.chunkSize(slabs.allocate(1)));
+        assertEquals(64, slabs.chunkSize(slabs.allocate(64)));
+        assertEquals(128, slabs.chunkSize(slabs.allocate(65)));
+        assertEquals(SlabAllocator.PAGE_SIZE, slabs.chunkSize(slabs.allocate(SlabAllocator.PAGE_SIZE)));
+        assertEquals(64 + 64 + 128 + SlabAllocator.PAGE_SIZE, slabs.usedBytes());
+    }
+
+    @Test
+    @DisplayName("해제한 chunk 는 같은 class 의 다음 할당에서 재사용되는지 확인")
+    void testFreeListReuse() {
+        SlabAllocator slabs = new SlabAllocator();
+        long first = slabs.allocate(100);
+        slabs.allocate(100);
+        long allocated = slabs.allocatedBytes();
+
+        slabs.free(first);
+
+        assertEquals(first, slabs.allocate(120));
+        assertEquals(allocated, slabs.allocatedBytes());
+    }
+
+    @Test
+    @DisplayName("page 보다 큰 값은 전용 buffer 에 저장되고 해제 시 총량에서 빠지는지 확인")
+    void testLargeAllocation() {
+        SlabAllocator slabs = new SlabAllocator();
+        long handle = slabs.allocate(SlabAllocator.PAGE_SIZE + 1);
+        assertEquals(SlabAllocator.PAGE_SIZE + 1, slabs.allocatedBytes());
+
+        slabs.free(handle);
+
+        assertEquals(0, slabs.allocatedBytes());
+        assertEquals(0, slabs.usedBytes());
+    }
+
+    @Test
+    @DisplayName("OFFHEAP 저장소에서 문자열/UTF-8/byte[] 값이 그대로 읽히는지 확인")
+    void testOffHeapStoreRoundTrip() {
+        CacheStore<String, Object> store = new CacheStore<>(CacheConfig.builder()
+                .storage(StorageType.OFFHEAP)
+                .build());
+
+        store.set("latin", "hello");
+        store.set("korean", "안녕하세요");
+        store.set("bytes", new byte[]{1, 2, 3});
+        store.set("big", "x".repeat(SlabAllocator.PAGE_SIZE * 2));
+
+        assertEquals("hello", store.get("latin"));
+        assertEquals("안녕하세요", store.get("korean"));
+        assertArrayEquals(new byte[]{1, 2, 3}, (byte[]) store.get("bytes"));
+        assertEquals(SlabAllocator.PAGE_SIZE * 2, ((String) store.get("big")).length());
+        assertEquals(List.of("hello", "안녕하세요"), store.getAll(List.of("latin", "korean")));
+    }
+
+    @Test
+    @DisplayName("OFFHEAP 저장소에서 덮어쓰기/삭제한 값의 chunk 가 재사용되어 메모리가 늘지 않는지 확인")
+    void testOffHeapOverwriteReusesChunks() {
+        CacheStore<String, String> store = new CacheStore<>(CacheConfig.builder()
+                .storage(StorageType.OFFHEAP)
+                .build());
+        for (int i = 0; i < 1000; i++) {
+            store.set("k" + (i % 10), "value-" + i);
+        }
+        long allocated = store.offHeapBytes();
+
+        for (int i = 0; i < 10_000; i++) {
+            store.set("k" + (i % 10), "value-" + i);
+            store.del("k" + ((i + 5) % 10));
+        }
+
+        assertEquals(allocated, store.offHeapBytes());
+        assertEquals("value-9999", store.get("k9"));
+    }
+
+    @Test
+    @DisplayName("OFFHEAP 저장소의 snapshot 데이터는 heap 엔트리로 복사되어 복원되는지 확인")
+    void testOffHeapSnapshotRoundTrip() {
+        CacheStore<String, String> store = new CacheStore<>(CacheConfig.builder()
+                .storage(StorageType.OFFHEAP)
+                .build());
+        store.set("a", "1");
+        store.set("b", "2", 60_000);
+
+        var snapshot = store.getSnapshotData();
+        store.del("a");
+        store.set("b", "overwritten");
+
+        Map<String, CacheEntry<String>> data = new LinkedHashMap<>(snapshot.storeData);
+        assertEquals("1", data.get("a").getValue());
+        assertEquals("2", data.get("b").getValue());
+
+        store.restoreFromSnapshot(data, snapshot.lruKeys);
+        assertEquals("1", store.get("a"));
+        assertEquals("2", store.get("b"));
+        assertTrue(store.ttl("b") > 0);
+    }
+}
@@ -1,16 +1,23 @@
 package com.cache;
 
+import com.common.ManualClock;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -161,4 +168,182 @@ class SnapshotManagerTest {
         }
         assertEquals(1, corruptedFileCount);
     }
+
+    @Test
+    @DisplayName("바이너리 스냅샷이 잘려 있으면 손상 파일로 처리되는지 테스트")
+    void testTruncatedBinarySnapshotIsRejected() throws IOException {
+        CacheStore<String, String> store = new CacheStore<>(CAPACITY);
+        store.set("A", "Value A");
+        store.set("B", "Value B");
+        new SnapshotManager<>(store).saveSnapshot();
+        assertFalse(new File(DEFAULT_SNAPSHOT_FILE + ".tmp").exists());
+
+        byte[] bytes = Files.readAllBytes(Paths.get(DEFAULT_SNAPSHOT_FILE));
+        Files.write(Paths.get(DEFAULT_SNAPSHOT_FILE), Arrays.copyOf(bytes, bytes.length - 5));
+
+        CacheStore<String, String> restored = new CacheStore<>(CAPACITY);
+        new SnapshotManager<>(restored).loadSnapshot();
+
+        assertTrue(restored.entries().isEmpty());
+        assertFalse(new File(DEFAULT_SNAPSHOT_FILE).exists());
+    }
+
+    @Test
+    @DisplayName("블록 payload 의 한 바이트만 바뀌어도 checksum 으로 검출되는지 테스트")
+    void testChecksumMismatchIsRejected() throws IOException {
+        CacheStore<String, String> store = new CacheStore<>(CAPACITY);
+        store.set("key", "value");
+        new SnapshotManager<>(store).saveSnapshot();
+
+        byte[] bytes = Files.readAllBytes(Paths.get(DEFAULT_SNAPSHOT_FILE));
+        bytes[BinarySnapshot.HEADER_SIZE + BinarySnapshot.BLOCK_HEADER_SIZE + 6] ^= 0x01;
+        Files.write(Paths.get(DEFAULT_SNAPSHOT_FILE), bytes);
+
+        CacheStore<String, String> restored = new CacheStore<>(CAPACITY);
+        new SnapshotManager<>(restored).loadSnapshot();
+
+        assertNull(restored.get("key"));
+    }
+
+    @Test
+    @DisplayName("Java 직렬화로 저장된 이전 형식 스냅샷도 읽을 수 있는지 테스트")
+    void testLegacySnapshotStillLoads() throws IOException {
+        CacheStore<String, String> store = new CacheStore<>(CAPACITY);
+        store.set("legacy", "value");
+        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(DEFAULT_SNAPSHOT_FILE))) {
+            oos.writeObject(store.getSnapshotData());
+        }
+
+        CacheStore<String, String> restored = new CacheStore<>(CAPACITY);
+        new SnapshotManager<>(restored).loadSnapshot();
+
+        assertEquals("value", restored.get("legacy"));
+    }
+
+    @Test
+    @DisplayName("여러 shard 의 키와 TTL 이 바이너리 스냅샷으로 그대로 복원되는지 테스트")
+    void testShardedBinaryRoundTrip() {
+        CacheStore<String, String> store = new CacheStore<>(1000, 4);
+        for (int i = 0; i < 500; i++) {
+            store.set("key" + i, "값" + i, i % 2 == 0 ? 60_000 : -1);
+        }
+        new SnapshotManager<>(store).saveSnapshot();
+
+        CacheStore<String, String> restored = new CacheStore<>(1000, 2);
+        new SnapshotManager<>(restored).loadSnapshot();
+
+        assertEquals(500, restored.size());
+        assertEquals("값499", restored.get("key499"));
+        assertTrue(restored.ttl("key0") > 0);
+        assertEquals(-1, restored.ttl("key1"));
+    }
+
+    @Test
+    @DisplayName("dump 도중 덮어쓰기/삭제/추가가 일어나도 cut 시점의 데이터가 그대로 기록되는지 테스트")
+    void testSnapshotCutIsConsistent() throws IOException {
+        CacheStore<String, String> store = new CacheStore<>(10_000, 4);
+        for (int i = 0; i < 1000; i++) {
+            store.set("key" + i, "old" + i);
+        }
+
+        int epoch = store.beginSnapshot();
+        Map<String, String> dumped = new HashMap<>();
+        try {
+            for (int s = 0; s < store.shardCount(); s++) {
+                if (s == 1) {
+                    // 일부 segment 를 내보낸 뒤 모든 segment 에 변경을 가한다
+                    for (int i = 0; i < 1000; i += 2) {
+                        store.set("key" + i, "new" + i);
+                    }
+                    for (int i = 1; i < 1000; i += 10) {
+                        store.del("key" + i);
+                    }
+                    store.set("added", "after cut");
+                }
+                store.dumpSegment(s, epoch, store.clock().millis(),
+                        (key, value, expireAt) -> assertNull(dumped.put(key, value)));
+            }
+        } finally {
+            store.endSnapshot();
+        }
+
+        assertEquals(1000, dumped.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("old" + i, dumped.get("key" + i));
+        }
+        assertEquals("new0", store.get("key0"));
+    }
+
+    @Test
+    @DisplayName("백그라운드 저장이 끝나면 파일로 복원할 수 있고, 저장 중에는 중복 실행되지 않는지 테스트")
+    void testBackgroundSnapshot() throws Exception {
+        CacheStore<String, String> store = new CacheStore<>(10_000);
+        for (int i = 0; i < 5000; i++) {
+            store.set("key" + i, "value" + i);
+        }
+        SnapshotManager<String, String> manager = new SnapshotManager<>(store);
+
+        CompletableFuture<Long> first = manager.saveSnapshotInBackground();
+        CompletableFuture<Long> second = manager.saveSnapshotInBackground();
+        assertEquals(5000L, first.get(10, TimeUnit.SECONDS));
+        assertTrue(second.isCompletedExceptionally() || second.get() == 5000L);
+        assertFalse(manager.isSaving());
+
+        CacheStore<String, String> restored = new CacheStore<>(10_000);
+        new SnapshotManager<>(restored).loadSnapshot();
+        assertEquals(5000, restored.size());
+    }
+
+    @Test
+    @DisplayName("여러 block 에 걸친 스냅샷을 병렬로 읽어도 내용과 shard 별 LRU 순서가 유지되고 만료된 키는 건너뛰는지 테스트")
+    void testParallelLoadAcrossBlocks() {
+        ManualClock clock = new ManualClock();
+        CacheStore<String, String> store = new CacheStore<>(
+                CacheConfig.builder().capacity(5_000).shards(1).clock(clock).build());
+        String padding = "x".repeat(100);
+        for (int i = 0; i < 5_000; i++) {
+            store.set("k" + i, padding + i, i % 10 == 0 ? 1_000 : -1);
+        }
+        store.get("k1");
+        new SnapshotManager<>(store).saveSnapshot();
+
+        clock.advance(5_000);
+        CacheStore<String, String> restored = new CacheStore<>(
+                CacheConfig.builder().capacity(5_000).shards(1).clock(clock).build());
+        new SnapshotManager<>(restored, DEFAULT_SNAPSHOT_FILE, 3).loadSnapshot();
+
+        assertEquals(4_500, restored.size());
+        assertNull(restored.get("k0"));
+        assertEquals(padding + 4999, restored.get("k4999"));
+
+        // 가장 오래된 키(k2)가 먼저 밀려나고 저장 직전에 읽은 k1 은 남는다
+        for (int i = 0; i < 501; i++) {
+            restored.set("new" + i, "v");
+        }
+        assertNull(restored.get("k2"));
+        assertEquals(padding + 1, restored.get("k1"));
+    }
+
+    @Test
+    @DisplayName("warm start 중에도 아직 안 올라온 키를 조회/덮어쓸 수 있고, 끝나면 전체가 복원되는지 테스트")
+    void testWarmStartServesWhileLoading() throws Exception {
+        CacheStore<String, String> store = new CacheStore<>(50_000, 4);
+        for (int i = 0; i < 20_000; i++) {
+            store.set("key" + i, "value" + i);
+        }
+        new SnapshotManager<>(store).saveSnapshot();
+
+        CacheStore<String, String> restored = new CacheStore<>(50_000, 4);
+        CompletableFuture<Long> loading = new SnapshotManager<>(restored, DEFAULT_SNAPSHOT_FILE, 2)
+                .loadSnapshotInBackground(10_000);
+        // 아직 안 올라온 segment 의 쓰기가 나중에 snapshot 내용으로 덮이면 안 된다
+        restored.set("key7", "overwritten");
+        assertEquals("value19999", restored.get("key19999"));
+
+        assertEquals(20_000, loading.get(10, TimeUnit.SECONDS));
+        assertFalse(restored.isLoading());
+        assertEquals(20_000, restored.size());
+        assertEquals("overwritten", restored.get("key7"));
+        assertEquals("value0", restored.get("key0"));
+    }
 }
@@ -0,0 +1,70 @@
+package com.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.common.ManualClock;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+class SnapshotSchedulerTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("변경 수와 경과 시간이 모두 규칙을 만족할 때만 저장하고, 저장 후 변경 수가 초기화되는지 확인")
+    void testSavesWhenRuleIsSatisfied() throws Exception {
+        ManualClock clock = new ManualClock();
+        CacheStore<String, String> store = new CacheStore<>(CacheConfig.builder().clock(clock).build());
+        Path file = dir.resolve("snapshot.dat");
+        SnapshotManager<String, String> manager = new SnapshotManager<>(store, file.toString());
+        SnapshotScheduler scheduler = new SnapshotScheduler(manager, store, List.of(new SaveRule(60, 3)));
+
+        store.set("a", "1");
+        store.set("b", "2");
+        clock.advance(61_000);
+        assertFalse(scheduler.check());
+
+        store.set("c", "3");
+        assertTrue(scheduler.check());
+        awaitSaved(manager);
+
+        assertTrue(Files.exists(file));
+        assertEquals(0, store.changesSinceSave());
+        assertEquals(clock.millis(), manager.lastSaveMillis());
+    }
+
+    @Test
+    @DisplayName("변경이 많아도 마지막 저장 이후 시간이 덜 지났으면 저장하지 않는지 확인")
+    void testWaitsForElapsedTime() throws InterruptedException {
+        ManualClock clock = new ManualClock();
+        CacheStore<String, String> store = new CacheStore<>(CacheConfig.builder().clock(clock).build());
+        SnapshotManager<String, String> manager = new SnapshotManager<>(store, dir.resolve("snapshot.dat").toString());
+        SnapshotScheduler scheduler = new SnapshotScheduler(manager, store,
+                List.of(new SaveRule(300, 10), new SaveRule(60, 1_000)));
+
+        for (int i = 0; i < 1_000; i++) {
+            store.set("key" + i, "v");
+        }
+        clock.advance(30_000);
+        assertFalse(scheduler.check());
+
+        clock.advance(31_000);
+        assertTrue(scheduler.check());
+        // 백그라운드 저장이 끝나기 전에 @TempDir 를 지우지 않도록 기다린다
+        awaitSaved(manager);
+    }
+
+    private static void awaitSaved(SnapshotManager<?, ?> manager) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (manager.isSaving() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(manager.isSaving());
+    }
+}
@@ -2,6 +2,7 @@ package com.cache;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.common.ManualClock;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -68,4 +69,70 @@ class TTLManagerTest {
         // 대기 시간 만큼 ttl 감소되었는지 확인
         assertTrue(ttlAfter < ttlBefore);
     }
+
+    @Test
+    @DisplayName("시간 budget 을 넘으면 cycle 을 멈추고 다음 cycle 에서 이어서 처리하는지 확인")
+    void testCycleStopsAtBudgetAndResumes() throws InterruptedException {
+        CacheStore<String, String> store = new CacheStore<>(20_000, 4);
+        for (int i = 0; i < 10_000; i++) {
+            store.set("key" + i, "value", 1);
+        }
+        Thread.sleep(30);
+
+        // budget 1us: 한 batch 만 처리하고 멈춘다
+        ttlManager = new TTLManager(store, 100, 1);
+        TTLManager.CycleResult first = ttlManager.runCycle();
+
+        assertTrue(first.timedOut());
+        assertTrue(first.expired() < 10_000);
+
+        int guard = 0;
+        while (ttlManager.getExpiredKeys() < 10_000 && guard++ < 10_000) {
+            ttlManager.runCycle();
+        }
+
+        assertEquals(10_000, ttlManager.getExpiredKeys());
+        assertTrue(ttlManager.getTimedOutCycles() >= 1);
+        assertTrue(ttlManager.getCycles() > 1);
+        assertTrue(store.entries().isEmpty());
+    }
+
+    @Test
+    @DisplayName("만료가 없으면 cycle 간격이 period 로 유지되는지 확인")
+    void testIdleCycleKeepsPeriod() {
+        ttlManager = new TTLManager(cacheStore, 200);
+
+        TTLManager.CycleResult result = ttlManager.runCycle();
+
+        assertFalse(result.timedOut());
+        assertEquals(0, result.expired());
+        assertEquals(200, ttlManager.currentDelayMillis());
+    }
+
+    @Test
+    @DisplayName("ManualClock: sleep 없이 수동/능동 만료가 정확한 시각에 일어나는지 확인")
+    void testExpirationWithManualClock() {
+        ManualClock clock = new ManualClock();
+        CacheStore<String, String> store = new CacheStore<>(CacheConfig.builder()
+                .capacity(10)
+                .clock(clock)
+                .build());
+        ttlManager = new TTLManager(store, 100);
+
+        store.set("passive", "value", 300);
+        store.set("active", "value", 300);
+
+        clock.advance(299);
+        assertEquals("value", store.get("passive"));
+        assertEquals(1, store.ttl("passive"));
+        assertEquals(0, ttlManager.runCycle().expired());
+
+        clock.advance(1);
+        assertNull(store.get("passive"));
+
+        // 만료 색인은 10ms tick 단위이므로 tick 이 지난 뒤 능동 삭제된다
+        clock.advance(10);
+        assertEquals(2, ttlManager.runCycle().expired());
+        assertTrue(store.entries().isEmpty());
+    }
 }
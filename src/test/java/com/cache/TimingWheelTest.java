@@ -0,0 +1,113 @@
+package com.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.common.ManualClock;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+class TimingWheelTest {
+
+    @Test
+    @DisplayName("만료 시각이 지난 항목만 꺼내는지 확인")
+    void testOnlyDueTimersAreReturned() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 0);
+        wheel.add("a", 50);
+        wheel.add("b", 120);
+
+        assertTrue(wheel.advance(40).isEmpty());
+        assertEquals(List.of("a"), keys(wheel.advance(60)));
+        assertTrue(wheel.advance(110).isEmpty());
+        assertEquals(List.of("b"), keys(wheel.advance(130)));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("위 레벨에 있던 먼 미래 항목이 cascade 되어 정시에 만료되는지 확인")
+    void testCascadeFromHigherLevels() {
+        TimingWheel<String> wheel = new TimingWheel<>(1, 0);
+        long[] deadlines = {63, 64, 4_095, 4_096, 300_000, 20_000_000};
+        for (long deadline : deadlines) {
+            wheel.add("t" + deadline, deadline);
+        }
+
+        for (long deadline : deadlines) {
+            assertTrue(wheel.advance(deadline).isEmpty(), "too early: " + deadline);
+            assertEquals(List.of("t" + deadline), keys(wheel.advance(deadline + 1)));
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("현재 시각보다 과거인 항목은 다음 advance 에서 바로 꺼내지는지 확인")
+    void testAlreadyExpiredTimer() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 1_000);
+        wheel.add("late", 500);
+
+        assertEquals(List.of("late"), keys(wheel.advance(1_010)));
+    }
+
+    @Test
+    @DisplayName("CacheStore.expireDue 는 다시 SET 된 키를 지우지 않는지 확인")
+    void testExpireDueSkipsOverwrittenKeys() throws InterruptedException {
+        CacheStore<String, String> store = new CacheStore<>(10);
+        store.set("ttl", "v", 50);
+        store.set("reset", "v", 50);
+        store.set("reset", "v2");
+
+        Thread.sleep(80);
+
+        assertEquals(List.of("ttl"), store.expireDue());
+        assertEquals("v2", store.get("reset"));
+    }
+
+    @Test
+    @DisplayName("cancel 한 항목은 wheel 에서 빠지고 advance 에서 꺼내지지 않는지 확인")
+    void testCancelledTimerIsRemoved() {
+        TimingWheel<String> wheel = new TimingWheel<>(1, 0);
+        TimingWheel.Timer<String> near = wheel.add("near", 10);
+        wheel.add("kept", 10);
+        TimingWheel.Timer<String> far = wheel.add("far", 300_000);
+
+        wheel.cancel(near);
+        wheel.cancel(far);
+        wheel.cancel(far);
+        assertEquals(1, wheel.size());
+
+        assertEquals(List.of("kept"), keys(wheel.advance(400_000)));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("같은 키를 TTL 과 함께 여러 번 SET/DEL/eviction 해도 Timer 가 키마다 하나만 남는지 확인")
+    void testOneTimerPerKey() {
+        ManualClock clock = new ManualClock();
+        CacheSegment<String, String> segment =
+                new CacheSegment<>(2, 0, EvictionPolicyType.LRU, StorageType.HEAP, clock);
+        long now = clock.millis();
+        for (int i = 0; i < 10_000; i++) {
+            segment.set("hot", segment.createEntry("hot", "v" + i, 86_400_000L, now), null);
+        }
+        assertEquals(1, segment.pendingExpirations());
+
+        segment.set("hot", segment.createEntry("hot", "no ttl", -1, now), null);
+        assertEquals(0, segment.pendingExpirations());
+
+        segment.set("a", segment.createEntry("a", "1", 1_000, now), null);
+        segment.del("a");
+        assertEquals(0, segment.pendingExpirations());
+
+        // 용량 2 이므로 세 번째 키가 들어오면 가장 오래된 키가 eviction 된다
+        segment.set("b", segment.createEntry("b", "1", 1_000, now), null);
+        segment.set("c", segment.createEntry("c", "1", 1_000, now), null);
+        segment.set("d", segment.createEntry("d", "1", 1_000, now), null);
+        assertEquals(2, segment.pendingExpirations());
+    }
+
+    private static List<String> keys(List<TimingWheel.Timer<String>> timers) {
+        return timers.stream().map(TimingWheel.Timer::key).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,91 @@
+package com.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class TinyLfuCacheTest {
+
+    @Test
+    @DisplayName("sketch: 증가시킨 만큼 빈도가 올라가고 최대 15 에서 멈추는지 확인")
+    void testSketchFrequency() {
+        FrequencySketch sketch = new FrequencySketch(64);
+
+        for (int i = 0; i < 5; i++) {
+            sketch.increment("hot");
+        }
+        assertEquals(5, sketch.frequency("hot"));
+
+        for (int i = 0; i < 100; i++) {
+            sketch.increment("hot");
+        }
+        assertEquals(15, sketch.frequency("hot"));
+    }
+
+    @Test
+    @DisplayName("sketch: sampleSize 에 도달하면 빈도가 절반으로 줄어드는지 확인 (aging)")
+    void testSketchAging() {
+        FrequencySketch sketch = new FrequencySketch(16);
+        for (int i = 0; i < 8; i++) {
+            sketch.increment("hot");
+        }
+
+        for (int i = 0; sketch.frequency("hot") == 8 && i < sketch.sampleSize(); i++) {
+            sketch.increment("filler" + i);
+        }
+
+        assertEquals(4, sketch.frequency("hot"));
+    }
+
+    @Test
+    @DisplayName("한 번씩만 접근하는 scan 이 자주 쓰는 키를 밀어내지 못하는지 확인")
+    void testScanResistance() {
+        CacheStore<String, String> lfu = new CacheStore<>(CacheConfig.builder()
+                .capacity(100)
+                .evictionPolicy(EvictionPolicyType.TINYLFU)
+                .build());
+        CacheStore<String, String> lru = new CacheStore<>(100);
+
+        for (CacheStore<String, String> store : List.of(lfu, lru)) {
+            for (int i = 0; i < 50; i++) {
+                store.set("hot" + i, "v");
+            }
+            for (int round = 0; round < 5; round++) {
+                for (int i = 0; i < 50; i++) {
+                    store.get("hot" + i);
+                }
+            }
+            for (int i = 0; i < 1000; i++) {
+                store.set("scan" + i, "v");
+            }
+        }
+
+        int lfuHits = 0;
+        int lruHits = 0;
+        for (int i = 0; i < 50; i++) {
+            if (lfu.get("hot" + i) != null) lfuHits++;
+            if (lru.get("hot" + i) != null) lruHits++;
+        }
+
+        assertEquals(0, lruHits);
+        assertTrue(lfuHits >= 45, "hot keys kept: " + lfuHits);
+        assertTrue(lfu.entries().size() <= 100);
+    }
+
+    @Test
+    @DisplayName("용량 1 에서도 항상 용량을 지키는지 확인")
+    void testSingleCapacity() {
+        TinyLfuCache<String> cache = new TinyLfuCache<>(1);
+        cache.recordAccess("a");
+        assertNull(cache.findEvictionTarget());
+
+        cache.recordAccess("b");
+        String victim = cache.findEvictionTarget();
+        assertNotNull(victim);
+        cache.remove(victim);
+        assertEquals(1, cache.getKeysInAccessOrder().size());
+    }
+}
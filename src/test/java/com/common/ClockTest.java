@@ -0,0 +1,35 @@
+package com.common;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ClockTest {
+
+    @Test
+    @DisplayName("CachedClock 이 백그라운드에서 시스템 시각을 따라가는지 확인")
+    void testCachedClockFollowsSystemTime() throws InterruptedException {
+        CachedClock clock = CachedClock.shared();
+        long first = clock.millis();
+
+        Thread.sleep(50);
+
+        long second = clock.millis();
+        assertTrue(second - first >= 40, "advanced " + (second - first) + "ms");
+        assertTrue(Math.abs(System.currentTimeMillis() - second) < 20);
+    }
+
+    @Test
+    @DisplayName("ManualClock 은 advance/set 으로만 움직이는지 확인")
+    void testManualClock() {
+        ManualClock clock = new ManualClock(100);
+        assertEquals(100, clock.millis());
+
+        clock.advance(50);
+        assertEquals(150, clock.millis());
+
+        clock.set(10);
+        assertEquals(10, clock.millis());
+    }
+}
@@ -0,0 +1,62 @@
+package com.common;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("bucket 경계가 값을 빠짐없이 덮고 상대 오차가 3% 이내인지 확인")
+    void testBucketBounds() {
+        long[] values = {0, 1, 63, 64, 65, 127, 128, 1_000, 12_345, 1_000_000, 987_654_321L, Long.MAX_VALUE};
+        for (long value : values) {
+            int index = LatencyHistogram.indexOf(value);
+            long lower = LatencyHistogram.lowerBound(index);
+            long upper = LatencyHistogram.upperBound(index);
+            assertTrue(lower <= value && value <= upper, value + " in [" + lower + ", " + upper + "]");
+            assertTrue(upper - lower <= Math.max(1, value / 32), "bucket width of " + value);
+        }
+        assertEquals(LatencyHistogram.upperBound(100) + 1, LatencyHistogram.lowerBound(101));
+    }
+
+    @Test
+    @DisplayName("percentile 이 실제 분포의 값을 근사하는지 확인")
+    void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 10_000; i++) {
+            histogram.record(i * 1_000L);
+        }
+
+        assertEquals(10_000, histogram.count());
+        assertEquals(10_000_000L, histogram.maxNanos());
+        assertEquals(5_000_500.0, histogram.meanNanos(), 1.0);
+        assertEquals(5_000, histogram.percentileMicros(50), 5_000 * 0.04);
+        assertEquals(9_900, histogram.percentileMicros(99), 9_900 * 0.04);
+        assertEquals(9_990, histogram.percentileMicros(99.9), 9_990 * 0.04);
+        assertEquals(10_000, histogram.percentileMicros(100), 0.001);
+    }
+
+    @Test
+    @DisplayName("merge 는 개수와 최댓값을 합치고 reset 은 모두 지우는지 확인")
+    void testMergeAndReset() {
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        first.record(100);
+        first.record(200);
+        second.record(5_000);
+
+        first.merge(second);
+        assertEquals(3, first.count());
+        assertEquals(5_000, first.maxNanos());
+        long[] visited = new long[1];
+        first.forEachBucket((lower, upper, count) -> visited[0] += count);
+        assertEquals(3, visited[0]);
+
+        first.reset();
+        assertEquals(0, first.count());
+        assertEquals(0, first.maxNanos());
+        assertEquals(0, first.percentileNanos(99));
+    }
+}
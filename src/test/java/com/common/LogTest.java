@@ -0,0 +1,107 @@
+package com.common;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+class LogTest {
+
+    @Test
+    @DisplayName("RingBuffer 는 가득 차면 기다리지 않고 false 를 반환하고 넣은 순서대로 꺼내는지 확인")
+    void testRingBufferRejectsWhenFull() {
+        RingBuffer<Integer> ring = new RingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertFalse(ring.offer(4));
+
+        assertEquals(0, ring.poll());
+        assertTrue(ring.offer(5));
+        List<Integer> rest = new ArrayList<>();
+        Integer value;
+        while ((value = ring.poll()) != null) {
+            rest.add(value);
+        }
+        assertEquals(List.of(1, 2, 3, 5), rest);
+    }
+
+    @Test
+    @DisplayName("RingBuffer 에 여러 스레드가 동시에 넣어도 빠지거나 중복되는 값이 없는지 확인")
+    void testRingBufferConcurrentProducers() throws InterruptedException {
+        RingBuffer<Long> ring = new RingBuffer<>(1024);
+        int producers = 4;
+        int perProducer = 20_000;
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long base = (long) p * perProducer;
+            Thread thread = new Thread(() -> {
+                for (long i = 0; i < perProducer; i++) {
+                    while (!ring.offer(base + i)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        boolean[] seen = new boolean[producers * perProducer];
+        AtomicLong received = new AtomicLong();
+        while (received.get() < seen.length) {
+            Long value = ring.poll();
+            if (value == null) {
+                Thread.yield();
+                continue;
+            }
+            assertFalse(seen[value.intValue()], "duplicate " + value);
+            seen[value.intValue()] = true;
+            received.incrementAndGet();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(ring.poll());
+    }
+
+    @Test
+    @DisplayName("Counter 는 이벤트마다 출력하지 않고 모아서 한 줄로 남기는지 확인")
+    void testCounterAggregates() {
+        PrintStream original = System.out;
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(captured, true, StandardCharsets.UTF_8));
+        try {
+            Log.Counter counter = Log.counter("[test] evicted", "keys");
+            for (int i = 0; i < 12_304; i++) {
+                counter.increment();
+            }
+            Log.info("[test] %d done", 1);
+            Log.flush();
+        } finally {
+            System.setOut(original);
+        }
+
+        String output = captured.toString(StandardCharsets.UTF_8);
+        assertTrue(output.contains("INFO  [" + Thread.currentThread().getName() + "] [test] 1 done"), output);
+        // 1초 주기 출력이 증가 도중에 끼어들면 두 줄로 나뉠 수 있지만, 합계는 빠짐없이 맞아야 한다
+        long total = 0;
+        int lines = 0;
+        for (String line : output.split("\n")) {
+            int at = line.indexOf("[test] evicted ");
+            if (at >= 0) {
+                String count = line.substring(at + 15, line.indexOf(" keys in last ")).replace(",", "");
+                total += Long.parseLong(count);
+                lines++;
+            }
+        }
+        assertEquals(12_304, total, output);
+        assertTrue(lines <= 2, output);
+    }
+}
@@ -0,0 +1,29 @@
+package com.common;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// 테스트용 시계. sleep 없이 시간을 직접 진행시킨다
+public class ManualClock implements Clock {
+    private final AtomicLong now;
+
+    public ManualClock() {
+        this(1_000_000L);
+    }
+
+    public ManualClock(long startMillis) {
+        this.now = new AtomicLong(startMillis);
+    }
+
+    @Override
+    public long millis() {
+        return now.get();
+    }
+
+    public void advance(long millis) {
+        now.addAndGet(millis);
+    }
+
+    public void set(long millis) {
+        now.set(millis);
+    }
+}
@@ -0,0 +1,96 @@
+package com.server;
+
+import com.cache.CacheStore;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientHandlerTest {
+
+    @Test
+    void pipelinedCommandsAreFlushedOnce() {
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            input.append("*3\r\n$3\r\nSET\r\n$2\r\nk").append(i % 10).append("\r\n$1\r\nv\r\n");
+        }
+        FakeSocket socket = new FakeSocket(input.toString());
+
+        new ClientHandler(socket, new CommandParser(new CacheStore<>()), false).run();
+
+        assertEquals("+OK\r\n".repeat(100), socket.output());
+        assertEquals(1, socket.writes);
+    }
+
+    @Test
+    void quitFlushesPendingRepliesBeforeClosing() {
+        FakeSocket socket = new FakeSocket("PING\r\nQUIT\r\nPING\r\n");
+
+        new ClientHandler(socket, new CommandParser(new CacheStore<>()), false).run();
+
+        assertEquals("+PONG\r\n+BYE\r\n", socket.output());
+        assertTrue(socket.isClosed());
+    }
+
+    @Test
+    void protocolErrorIsReportedAndConnectionClosed() {
+        FakeSocket socket = new FakeSocket("*1\r\n!oops\r\n");
+
+        new ClientHandler(socket, new CommandParser(new CacheStore<>()), false).run();
+
+        assertTrue(socket.output().startsWith("-ERR Protocol error"));
+    }
+
+    private static final class FakeSocket extends Socket {
+        private final InputStream in;
+        private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+        private int writes;
+        private boolean closed;
+
+        private FakeSocket(String input) {
+            this.in = new ByteArrayInputStream(input.getBytes(StandardCharsets.ISO_8859_1));
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return in;
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return new OutputStream() {
+                @Override
+                public void write(int b) {
+                    writes++;
+                    written.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    writes++;
+                    written.write(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public synchronized void close() {
+            closed = true;
+        }
+
+        @Override
+        public boolean isClosed() {
+            return closed;
+        }
+
+        private String output() {
+            return written.toString(StandardCharsets.ISO_8859_1);
+        }
+    }
+}
@@ -1,8 +1,17 @@
 package com.server;
 
+import com.cache.AppendOnlyLogException;
+import com.cache.CacheConfig;
 import com.cache.CacheStore;
+import com.cache.SnapshotManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -72,5 +81,172 @@ class CommandParserTest {
         assertEquals("+BYE", result.response());
         assertTrue(result.shouldClose());
     }
-}
 
+    @Test
+    void msetAndMgetHandleManyKeys() {
+        CommandResult setResult = parser.handle("MSET a 1 b 2 c 3");
+        assertEquals("+OK", setResult.response());
+
+        CommandResult getResult = parser.handle("MGET a missing c");
+        assertEquals(CommandResult.Type.ARRAY, getResult.type());
+        assertEquals("*3\r\n+VALUE 1\r\n(nil)\r\n+VALUE 3", getResult.response());
+    }
+
+    @Test
+    void msetWithExpireAppliesTtlToAllKeys() {
+        parser.handle("MSET a 1 b 2 EX 5");
+
+        assertTrue(parser.handle("TTL a").response().matches(":[45]"));
+        assertTrue(parser.handle("TTL b").response().matches(":[45]"));
+    }
+
+    @Test
+    void msetWithOddArgumentsReturnsError() {
+        CommandResult result = parser.handle("MSET a 1 b");
+        assertTrue(result.response().startsWith("-ERR MSET syntax"));
+    }
+
+    @Test
+    void memoryUsageReportsEntrySizeAndNilForMissingKey() {
+        parser.handle("SET foo bar");
+
+        assertTrue(parser.handle("MEMORY USAGE foo").response().matches(":\\d+"));
+        assertEquals(CommandResult.Type.NULL, parser.handle("MEMORY USAGE missing").type());
+        assertTrue(parser.handle("MEMORY STATS").response().startsWith("*10\r\n+VALUE used_memory"));
+    }
+
+    @Test
+    void setLargerThanMaxMemoryReturnsOomError() {
+        CommandParser limited = new CommandParser(new CacheStore<>(CacheConfig.builder().maxMemory(512).build()));
+
+        CommandResult result = limited.handle("SET big " + "x".repeat(1024));
+
+        assertTrue(result.response().startsWith("-OOM "));
+    }
+
+    @Test
+    void bgRewriteAofWithoutAppendLogReturnsError() {
+        assertTrue(parser.handle("BGREWRITEAOF").response().startsWith("-ERR "));
+    }
+
+    @Test
+    void infoReportsPersistenceStatus() {
+        CommandResult result = parser.handle("INFO persistence");
+
+        assertTrue(result.response().contains("loading:0"));
+        assertTrue(result.response().contains("aof_enabled:0"));
+    }
+
+    @Test
+    void saveWritesSnapshotAndUpdatesLastSave(@TempDir Path dir) {
+        CacheStore<String, String> store = new CacheStore<>();
+        Path file = dir.resolve("snapshot.dat");
+        CommandParser withSnapshot = new CommandParser(store, new SnapshotManager<>(store, file.toString()));
+        withSnapshot.handle("SET foo bar");
+
+        assertEquals("+OK", withSnapshot.handle("SAVE").response());
+        assertTrue(Files.exists(file));
+        assertTrue(withSnapshot.handle("LASTSAVE").response().startsWith(":"));
+        assertTrue(withSnapshot.handle("INFO").response().contains("rdb_changes_since_last_save:0"));
+    }
+
+    @Test
+    void saveWithoutSnapshotManagerReturnsError() {
+        assertTrue(parser.handle("BGSAVE").response().startsWith("-ERR "));
+    }
+
+    @Test
+    void infoStatsCountsCommandsAndKeyspaceHits() {
+        parser.handle("SET foo bar");
+        parser.handle("GET foo");
+        parser.handle("GET missing");
+        parser.handle("NOPE");
+
+        String stats = parser.handle("INFO stats").response();
+        assertTrue(stats.contains("total_commands_processed:4"));
+        assertTrue(stats.contains("keyspace_hits:1"));
+        assertTrue(stats.contains("keyspace_misses:1"));
+        assertTrue(stats.contains("unknown_commands:1"));
+
+        String commandStats = parser.handle("INFO commandstats").response();
+        assertTrue(commandStats.contains("cmdstat_get:calls=2,"));
+        assertTrue(commandStats.contains("cmdstat_set:calls=1,"));
+        assertTrue(parser.handle("INFO").response().contains("# Keyspace"));
+    }
+
+    @Test
+    void latencyHistogramReportsCumulativeBuckets() {
+        parser.handle("SET foo bar");
+        parser.handle("GET foo");
+        parser.handle("GET foo");
+
+        CommandResult result = parser.execute(List.of("LATENCY", "HISTOGRAM", "get", "ttl"));
+        assertEquals(CommandResult.Type.ARRAY, result.type());
+        assertEquals(2, result.elements().size());
+        assertEquals("get", result.elements().get(0).text());
+        List<CommandResult> details = result.elements().get(1).elements();
+        assertEquals(2, details.get(1).number());
+        List<CommandResult> buckets = details.get(3).elements();
+        assertEquals(2, buckets.get(buckets.size() - 1).number());
+
+        assertTrue(parser.handle("LATENCY").response().startsWith("-ERR "));
+    }
+
+    @Test
+    void slowLogKeepsMostRecentEntries() {
+        CommandParser logging = new CommandParser(new CacheStore<>(), null, new SlowLog(0, 2));
+        logging.execute(List.of("SET", "a", "1"), "127.0.0.1:5000");
+        logging.execute(List.of("SET", "b", "2"), "127.0.0.1:5000");
+        logging.execute(List.of("GET", "b"), "127.0.0.1:5001");
+
+        // SLOWLOG 명령 자신도 기록되므로 LEN 을 먼저 본다
+        assertEquals(2, logging.handle("SLOWLOG LEN").number());
+        List<CommandResult> entries = logging.handle("SLOWLOG GET").elements();
+        assertEquals(2, entries.size());
+
+        List<CommandResult> newest = entries.get(0).elements();
+        assertEquals(3, newest.get(0).number());
+        assertEquals("SLOWLOG", newest.get(3).elements().get(0).text());
+        List<CommandResult> older = entries.get(1).elements();
+        assertEquals("GET", older.get(3).elements().get(0).text());
+        assertEquals("127.0.0.1:5001", older.get(4).text());
+
+        logging.handle("SLOWLOG RESET");
+        List<CommandResult> afterReset = logging.handle("SLOWLOG GET -1").elements();
+        assertEquals(1, afterReset.size());
+        assertEquals("RESET", afterReset.get(0).elements().get(3).elements().get(1).text());
+    }
+
+    @Test
+    void appendOnlyLogFailureIsReportedAsMisconf() {
+        CacheStore<String, String> failing = new CacheStore<>() {
+            @Override
+            public void set(String key, String value, long ttl) {
+                throw new AppendOnlyLogException("Errors writing to the append only log: disk full", null);
+            }
+        };
+
+        CommandResult result = new CommandParser(failing).execute(List.of("SET", "a", "1"));
+
+        assertEquals(CommandResult.Type.ERROR, result.type());
+        assertTrue(result.response().startsWith("-MISCONF "), result.response());
+    }
+
+    @Test
+    void slowLogThresholdDoesNotOverflow() {
+        SlowLog huge = new SlowLog(Long.MAX_VALUE / 10, 8);
+        assertFalse(huge.isSlow(TimeUnit.SECONDS.toNanos(10)));
+        assertTrue(new SlowLog(0, 8).isSlow(0));
+        assertFalse(new SlowLog(-1, 8).isSlow(Long.MAX_VALUE - 1));
+    }
+
+    @Test
+    void slowLogTruncatesLongArguments() {
+        CommandParser logging = new CommandParser(new CacheStore<>(), null, new SlowLog(0, 8));
+        logging.execute(List.of("SET", "b", "x".repeat(200)));
+
+        List<CommandResult> arguments = logging.handle("SLOWLOG GET 1").elements().get(0).elements().get(3).elements();
+        assertEquals("x".repeat(128) + "... (72 more bytes)", arguments.get(2).text());
+        assertTrue(parser.handle("SLOWLOG").response().startsWith("-ERR "));
+    }
+}
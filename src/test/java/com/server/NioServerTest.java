@@ -0,0 +1,161 @@
+package com.server;
+
+import com.cache.CacheStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NioServerTest {
+
+    private NioServer server;
+    private Thread acceptThread;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        start(new CommandParser(new CacheStore<>()), 2, false);
+    }
+
+    private void start(CommandParser commandParser, int eventLoops, boolean greeting) throws IOException {
+        ServerConfig config = ServerConfig.builder()
+                .port(0)
+                .ioMode(IoMode.NIO)
+                .eventLoopThreads(eventLoops)
+                .greeting(greeting)
+                .build();
+        server = new NioServer(config, commandParser);
+        server.bind();
+        acceptThread = new Thread(() -> {
+            try {
+                server.acceptLoop();
+            } catch (IOException ignored) {
+            }
+        });
+        acceptThread.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        server.close();
+        acceptThread.join(1000);
+    }
+
+    @Test
+    void servesMoreIdleConnectionsThanEventLoops() throws IOException {
+        List<Socket> sockets = new ArrayList<>();
+        try {
+            for (int i = 0; i < 50; i++) {
+                Socket socket = new Socket("localhost", server.localPort());
+                sockets.add(socket);
+                send(socket, "PING\r\n");
+                assertEquals("+PONG", reader(socket).readLine());
+            }
+
+            Socket last = sockets.get(sockets.size() - 1);
+            BufferedReader reader = reader(last);
+            send(last, "SET foo bar\r\n");
+            assertEquals("+OK", reader.readLine());
+            send(last, "GET foo\r\n");
+            assertEquals("+VALUE bar", reader.readLine());
+        } finally {
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+        }
+    }
+
+    @Test
+    void handlesSeveralCommandsInOneWrite() throws IOException {
+        try (Socket socket = new Socket("localhost", server.localPort())) {
+            BufferedReader reader = reader(socket);
+
+            send(socket, "SET a 1\r\nSET b 2\r\nGET a\r\nGET b\r\nQUIT\r\n");
+
+            assertEquals("+OK", reader.readLine());
+            assertEquals("+OK", reader.readLine());
+            assertEquals("+VALUE 1", reader.readLine());
+            assertEquals("+VALUE 2", reader.readLine());
+            assertEquals("+BYE", reader.readLine());
+            assertNull(reader.readLine());
+        }
+    }
+
+    @Test
+    void handlesCommandSplitAcrossWrites() throws IOException, InterruptedException {
+        try (Socket socket = new Socket("localhost", server.localPort())) {
+            BufferedReader reader = reader(socket);
+
+            send(socket, "PI");
+            Thread.sleep(50);
+            send(socket, "NG\r\n");
+
+            assertEquals("+PONG", reader.readLine());
+        }
+    }
+
+    @Test
+    void eventLoopSurvivesFailingCommand() throws IOException, InterruptedException {
+        tearDown();
+        CommandParser failing = new CommandParser(new CacheStore<>()) {
+            @Override
+            public CommandResult handle(RespRequest request, String client) {
+                if ("BOOM".equals(request.arguments().get(0))) {
+                    throw new IllegalStateException("boom");
+                }
+                return super.handle(request, client);
+            }
+        };
+        start(failing, 1, false);
+
+        try (Socket idle = new Socket("localhost", server.localPort());
+             Socket broken = new Socket("localhost", server.localPort())) {
+            BufferedReader idleReader = reader(idle);
+            BufferedReader brokenReader = reader(broken);
+
+            send(broken, "BOOM\r\n");
+            assertNull(brokenReader.readLine());
+
+            // 같은 (하나뿐인) event loop 의 다른 연결과 새 연결은 계속 처리된다
+            send(idle, "PING\r\n");
+            assertEquals("+PONG", idleReader.readLine());
+            try (Socket fresh = new Socket("localhost", server.localPort())) {
+                BufferedReader freshReader = reader(fresh);
+                send(fresh, "PING\r\n");
+                assertEquals("+PONG", freshReader.readLine());
+            }
+        }
+    }
+
+    @Test
+    void greetingIsSentOnlyWhenEnabled() throws IOException, InterruptedException {
+        tearDown();
+        start(new CommandParser(new CacheStore<>()), 1, true);
+
+        try (Socket socket = new Socket("localhost", server.localPort())) {
+            BufferedReader reader = reader(socket);
+            assertEquals("+OK MiniRedis ready", reader.readLine());
+            send(socket, "PING\r\n");
+            assertEquals("+PONG", reader.readLine());
+        }
+    }
+
+    private static BufferedReader reader(Socket socket) throws IOException {
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    private static void send(Socket socket, String data) throws IOException {
+        OutputStream out = socket.getOutputStream();
+        out.write(data.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+}
@@ -0,0 +1,131 @@
+package com.server;
+
+import com.cache.CacheStore;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RespCodecTest {
+
+    private final RespParser parser = new RespParser();
+
+    @Test
+    void parsesMultiBulkRequest() throws ProtocolException {
+        ByteBuffer buffer = wrap("*3\r\n$3\r\nSET\r\n$3\r\nfoo\r\n$3\r\nbar\r\n");
+
+        RespRequest request = parser.parse(buffer);
+
+        assertNotNull(request);
+        assertTrue(request.isMultiBulk());
+        assertEquals(List.of("SET", "foo", "bar"), request.arguments());
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    void valuesMayContainSpacesAndBinaryBytes() throws ProtocolException {
+        byte[] binary = {0, (byte) 0xff, '\r', '\n', ' ', 'a'};
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        buffer.put("*2\r\n$4\r\nPING\r\n$6\r\n".getBytes(StandardCharsets.US_ASCII));
+        buffer.put(binary);
+        buffer.put("\r\n".getBytes(StandardCharsets.US_ASCII));
+        buffer.flip();
+
+        RespRequest request = parser.parse(buffer);
+
+        ByteBuffer slice = request.slice(1);
+        byte[] copied = new byte[slice.remaining()];
+        slice.get(copied);
+        assertArrayEquals(binary, copied);
+        assertArrayEquals(binary, request.argument(1).getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    @Test
+    void incompleteRequestLeavesBufferUntouched() throws ProtocolException {
+        ByteBuffer buffer = wrap("*2\r\n$3\r\nGET\r\n$3\r\nfo");
+
+        assertNull(parser.parse(buffer));
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    void parsesInlineCommandsWithoutRegex() throws ProtocolException {
+        ByteBuffer buffer = wrap("  SET   key\tvalue \r\nGET key\n");
+
+        RespRequest first = parser.parse(buffer);
+        RespRequest second = parser.parse(buffer);
+
+        assertFalse(first.isMultiBulk());
+        assertEquals(List.of("SET", "key", "value"), first.arguments());
+        assertEquals(List.of("GET", "key"), second.arguments());
+        assertNull(parser.parse(buffer));
+    }
+
+    @Test
+    void rejectsMalformedBulkHeader() {
+        assertThrows(ProtocolException.class, () -> parser.parse(wrap("*1\r\n+PING\r\n")));
+        assertThrows(ProtocolException.class, () -> parser.parse(wrap("*1\r\n$x\r\n")));
+    }
+
+    @Test
+    void readBufferShrinksBackAfterLargeRequest() throws ProtocolException {
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        buffer.put("PING\r\nGE".getBytes(StandardCharsets.US_ASCII));
+        buffer = RespParser.expand(buffer);
+        assertEquals(16, buffer.capacity());
+
+        buffer.flip();
+        assertEquals(List.of("PING"), parser.parse(buffer).arguments());
+        buffer.compact();
+        buffer = RespParser.shrink(buffer, 8);
+
+        assertEquals(8, buffer.capacity());
+        assertEquals(2, buffer.position());
+        buffer.put("T k\r\n".getBytes(StandardCharsets.US_ASCII)).flip();
+        assertEquals(List.of("GET", "k"), parser.parse(buffer).arguments());
+    }
+
+    @Test
+    void encodesRespReplies() throws IOException {
+        assertEquals("+OK\r\n", encode(CommandResult.status("OK"), true));
+        assertEquals("-ERR boom\r\n", encode(CommandResult.error("boom"), true));
+        assertEquals(":-42\r\n", encode(CommandResult.integer(-42), true));
+        assertEquals("$5\r\nhello\r\n", encode(CommandResult.value("hello"), true));
+        assertEquals("$-1\r\n", encode(CommandResult.nil("key not found"), true));
+        assertEquals("*2\r\n$1\r\na\r\n$-1\r\n",
+                encode(CommandResult.array(List.of(CommandResult.value("a"), CommandResult.nil("x"))), true));
+    }
+
+    @Test
+    void encodesLegacyTextReplies() throws IOException {
+        assertEquals("+VALUE hello\r\n", encode(CommandResult.value("hello"), false));
+        assertEquals("-ERR key not found\r\n", encode(CommandResult.nil("key not found"), false));
+    }
+
+    @Test
+    void respRequestsRoundTripThroughCommandParser() throws IOException {
+        CommandParser commandParser = new CommandParser(new CacheStore<>());
+        ByteBuffer buffer = wrap("*3\r\n$3\r\nSET\r\n$3\r\nk v\r\n$11\r\nhello world\r\n"
+                + "*2\r\n$3\r\nGET\r\n$3\r\nk v\r\n");
+
+        assertEquals("+OK\r\n", encode(commandParser.handle(parser.parse(buffer)), true));
+        assertEquals("$11\r\nhello world\r\n", encode(commandParser.handle(parser.parse(buffer)), true));
+    }
+
+    private static ByteBuffer wrap(String data) {
+        return ByteBuffer.wrap(data.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static String encode(CommandResult result, boolean resp) throws IOException {
+        ReplyBuffer reply = new ReplyBuffer(8);
+        RespEncoder.encode(result, resp, reply);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        reply.writeTo(out);
+        return out.toString(StandardCharsets.ISO_8859_1);
+    }
+}